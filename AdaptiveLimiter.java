@@ -0,0 +1,217 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client side concurrency limit that adapts to the service. AIMD grows the limit by one on every
+ * success while the limit is in use and cuts it by 10% on an error, once per round trip: calls
+ * started before the last cut do not cut again. VEGAS estimates the requests
+ * queued at the service from the latency above the lowest one seen, limit * (1 - minRtt / rtt),
+ * and grows the limit while that queue is short and shrinks it when it builds up, errors cut it by
+ * 10% as well. Calls over the limit wait in a fifo queue without holding a thread.
+ */
+public class AdaptiveLimiter {
+
+  /**
+   * Algorithm adjusting the limit.
+   */
+  public enum Algorithm {
+    AIMD, VEGAS
+  }
+
+  private static final double BACKOFF_RATIO = 0.9;
+  private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+  private final String name;
+  private final Algorithm algorithm;
+  private final int minLimit;
+  private final int maxLimit;
+  private final Queue<Waiter> waiters = new ArrayDeque<>();
+  private final LatencyHistogram queueDelay = new LatencyHistogram();
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private double limit;
+  private int inFlight;
+  private long minRttNanos = Long.MAX_VALUE;
+  private long samples;
+  private long drops;
+  private long lastBackoffNanos = System.nanoTime() - 1;
+
+  /**
+   * Initialize the limiter.
+   *
+   * @param name name
+   * @param algorithm algorithm
+   * @param initialLimit initialLimit
+   * @param minLimit minLimit
+   * @param maxLimit maxLimit
+   */
+  public AdaptiveLimiter(String name, Algorithm algorithm, int initialLimit, int minLimit, int maxLimit) {
+    this.name = name;
+    this.algorithm = algorithm;
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+  }
+
+  /**
+   * function to get a permit, completed at once while the limit is not reached.
+   */
+  public CompletableFuture<Permit> acquire() {
+    long now = System.nanoTime();
+    synchronized (this) {
+      if (waiters.isEmpty() && inFlight < (int) limit) {
+        inFlight++;
+        queueDelay.record(0);
+        return CompletableFuture.completedFuture(new Permit(now));
+      }
+      Waiter waiter = new Waiter(now);
+      waiters.add(waiter);
+      return waiter.permit;
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  public synchronized int getQueued() {
+    return waiters.size();
+  }
+
+  public synchronized long getDrops() {
+    return drops;
+  }
+
+  /**
+   * function to get the time calls waited for a permit, in nanoseconds.
+   */
+  public LatencyHistogram getQueueDelay() {
+    return queueDelay;
+  }
+
+  /**
+   * function to get the latency of the calls once they had a permit, in nanoseconds.
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  private void release(long startNanos, boolean dropped, boolean sampled) {
+    long rttNanos = System.nanoTime() - startNanos;
+    if (sampled) {
+      latency.record(rttNanos);
+    }
+    List<Waiter> admitted = new ArrayList<>();
+    synchronized (this) {
+      inFlight--;
+      // a cancelled call says nothing about the service, its permit is only given back
+      if (sampled) {
+        samples++;
+        if (dropped) {
+          drops++;
+          if (startNanos - lastBackoffNanos > 0) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            lastBackoffNanos = System.nanoTime();
+          }
+        } else if (algorithm == Algorithm.AIMD) {
+          if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+          }
+        } else {
+          updateVegas(rttNanos);
+        }
+      }
+      while (!waiters.isEmpty() && inFlight < (int) limit) {
+        inFlight++;
+        admitted.add(waiters.poll());
+      }
+    }
+    long now = System.nanoTime();
+    for (Waiter waiter : admitted) {
+      queueDelay.record(now - waiter.enqueuedNanos);
+      waiter.permit.complete(new Permit(now));
+    }
+  }
+
+  /**
+   * The lowest latency is taken again from time to time, so a service that got slower for good is
+   * not seen as queueing forever.
+   */
+  private void updateVegas(long rttNanos) {
+    if (samples % MIN_RTT_RESET_SAMPLES == 0) {
+      minRttNanos = rttNanos;
+    }
+    minRttNanos = Math.min(minRttNanos, Math.max(1, rttNanos));
+    double queue = Math.ceil(limit * (1 - (double) minRttNanos / Math.max(1, rttNanos)));
+    double step = Math.max(1, Math.log10(limit));
+    if (queue < 3 * step) {
+      if (inFlight * 2 >= limit) {
+        limit = Math.min(maxLimit, limit + step);
+      }
+    } else if (queue > 6 * step) {
+      limit = Math.max(minLimit, limit - step);
+    }
+  }
+
+  /**
+   * A call admitted under the limit.
+   */
+  public class Permit {
+
+    private final long startNanos;
+    private boolean released;
+
+    Permit(long startNanos) {
+      this.startNanos = startNanos;
+    }
+
+    /**
+     * function to end the call, admitting the next waiting one.
+     *
+     * @param dropped whether the call failed or was rejected by the service.
+     */
+    public void release(boolean dropped) {
+      if (markReleased()) {
+        AdaptiveLimiter.this.release(startNanos, dropped, true);
+      }
+    }
+
+    /**
+     * function to give back the permit of a cancelled call, without a latency sample.
+     */
+    public void cancel() {
+      if (markReleased()) {
+        AdaptiveLimiter.this.release(startNanos, false, false);
+      }
+    }
+
+    private synchronized boolean markReleased() {
+      if (released) {
+        return false;
+      }
+      released = true;
+      return true;
+    }
+  }
+
+  private static class Waiter {
+
+    private final long enqueuedNanos;
+    private final CompletableFuture<Permit> permit = new CompletableFuture<>();
+
+    Waiter(long enqueuedNanos) {
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+
+}
@@ -1,17 +1,92 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 
-import org.apache.commons.lang3.StringUtils;
-import org.apache.http.NameValuePair;
-import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
 
-import java.util.Arrays;
-import java.util.List;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class ApiResourceRestClient extends RelativeRestClient {
+/**
+ * Client of the API under test. Every call is described by an immutable {@link RequestSpec}, so
+ * one instance can be shared by all the threads of a run.
+ */
+public class ApiResourceRestClient {
+
+  private static final byte[] EMPTY_BODY = new byte[0];
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  /**
+   * threads blocking on the http client for the attempts of calls under a policy, cancelled
+   * attempts abort their request so the thread is handed back.
+   */
+  private static final ExecutorService LIVE_ATTEMPTS = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "live-attempt-" + THREAD_COUNT.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * handler reading the whole response into an {@link ApiResponse}.
+   */
+  public static final ResponseHandler<ApiResponse> BUFFERED_RESPONSE =
+      (status, body) -> new ApiResponse(status, body.readAllBytes());
+
+  private final HttpClient httpClient;
+  private final String baseUrl;
+  private final AsyncHttpTransport asyncTransport;
+  private final RecordingStore recordingStore;
 
   public ApiResourceRestClient(HttpClient httpClient, String baseUrl) {
-    super(httpClient, baseUrl);
+    this(httpClient, baseUrl, null);
+  }
+
+  /**
+   * Initialize with the transport used by the async methods, recording or replaying as
+   * jsonTest.http.mode is set.
+   *
+   * @param httpClient httpClient
+   * @param baseUrl baseUrl
+   * @param asyncTransport transport of the async methods, null for the shared default.
+   */
+  public ApiResourceRestClient(HttpClient httpClient, String baseUrl, AsyncHttpTransport asyncTransport) {
+    this(httpClient, baseUrl, asyncTransport, RecordingStore.configured());
+  }
+
+  /**
+   * Initialize with the store the responses are recorded to or replayed from.
+   *
+   * @param httpClient httpClient
+   * @param baseUrl baseUrl
+   * @param asyncTransport transport of the async methods, null for the shared default.
+   * @param recordingStore store, null to always call the service.
+   */
+  public ApiResourceRestClient(HttpClient httpClient, String baseUrl, AsyncHttpTransport asyncTransport,
+      RecordingStore recordingStore) {
+    this.httpClient = httpClient;
+    this.baseUrl = baseUrl;
+    this.asyncTransport = asyncTransport;
+    this.recordingStore = recordingStore;
+  }
+
+  public String getBaseUrl() {
+    return baseUrl;
   }
 
   /**
@@ -22,12 +97,7 @@ public class ApiResourceRestClient extends RelativeRestClient {
    */
   public <T> T getResourceRestClient(String basePath, Map<String, Object> queryParams,
       Map<String, String> pathParams, Class<T> resourceClass, String auth) {
-    final String updatedBasePath = getUpdatedBasePath(basePath, pathParams, queryParams);
-    if (auth != null) {
-      setHeaders(Arrays.asList(getAuthToken(auth)));
-    }
-
-    return get(getHttpRequest(updatedBasePath), resourceClass);
+    return send(spec("GET", basePath, queryParams, pathParams, null, auth), resourceClass);
   }
 
   /**
@@ -39,8 +109,7 @@ public class ApiResourceRestClient extends RelativeRestClient {
    */
   public <T> T postResourceRestClient(String basePath, Map<String, Object> queryParams,
       Map<String, String> pathParams, Object obj, Class<T> resourceClass) {
-    final String updatedBasePath = getUpdatedBasePath(basePath, pathParams, queryParams);
-    return post(getHttpRequest(updatedBasePath), obj, resourceClass);
+    return postResourceRestClient(basePath, queryParams, pathParams, obj, resourceClass, null);
   }
 
   /**
@@ -53,28 +122,22 @@ public class ApiResourceRestClient extends RelativeRestClient {
    */
   public <T> T postResourceRestClient(String basePath, Map<String, Object> queryParams,
       Map<String, String> pathParams, Object obj, Class<T> resourceClass, String auth) {
-    final String updatedBasePath = getUpdatedBasePath(basePath, pathParams, queryParams);
-    if (auth != null) {
-      setHeaders(Arrays.asList(getAuthToken(auth)));
-    }
-    return post(getHttpRequest(updatedBasePath), obj, resourceClass);
+    return send(spec("POST", basePath, queryParams, pathParams, obj, auth), resourceClass);
   }
 
   /**
-   * method call for put request.
+   * method call for put request, the response is read as the class of the resource.
    * 
    * @param basePath base path.
    * @param queryParams query params
    * @param pathParams path params
    * @param resource resource parameter.
    */
+  @SuppressWarnings("unchecked")
   public <T> T putResourceRestClient(String basePath, Map<String, Object> queryParams,
       Map<String, String> pathParams, Object resource, String auth) {
-    final String updatedBasePath = getUpdatedBasePath(basePath, pathParams, queryParams);
-    if (auth != null) {
-      setHeaders(Arrays.asList(getAuthToken(auth)));
-    }
-    return put(getHttpRequest(updatedBasePath), resource);
+    return send(spec("PUT", basePath, queryParams, pathParams, resource, auth),
+        resource == null ? null : (Class<T>) resource.getClass());
   }
 
   /**
@@ -86,95 +149,403 @@ public class ApiResourceRestClient extends RelativeRestClient {
    */
   public void deleteResourceRestClient(String basePath, Map<String, Object> queryParams,
       Map<String, String> pathParams, String auth) {
-    final String updatedBasePath = getUpdatedBasePath(basePath, pathParams, queryParams);
-    if (auth != null) {
-      setHeaders(Arrays.asList(getAuthToken(auth)));
+    send(spec("DELETE", basePath, queryParams, pathParams, null, auth), Void.class);
+  }
+
+  /**
+   * method call for patch request.
+   * 
+   * @param basePath base path.
+   * @param queryParams query params.
+   * @param pathParams path params.
+   */
+  public <T> T patchResourceRestClient(String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, Object obj, Class<T> resourceClass, String auth) {
+    return send(spec("PATCH", basePath, queryParams, pathParams, obj, auth), resourceClass);
+  }
+
+  /**
+   * method call sending a raw json body and returning the raw response, without binding either
+   * side to a resource class.
+   * 
+   * @param method http method.
+   * @param basePath base path.
+   * @param queryParams query params.
+   * @param pathParams path params.
+   * @param body json body, may be null.
+   * @param auth Authorization value, may be null.
+   */
+  public ApiResponse exchange(String method, String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, byte[] body, String auth) {
+    return exchange(method, basePath, queryParams, pathParams, body, auth, BUFFERED_RESPONSE);
+  }
+
+  /**
+   * method call sending a raw json body and handing the response stream to the given handler, so
+   * the response never has to be held in memory.
+   * 
+   * @param method http method.
+   * @param basePath base path.
+   * @param queryParams query params.
+   * @param pathParams path params.
+   * @param body json body, may be null.
+   * @param auth Authorization value, may be null.
+   * @param handler handler reading the response stream while the connection is open.
+   */
+  public <T> T exchange(String method, String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, byte[] body, String auth, ResponseHandler<T> handler) {
+    return exchange(RequestSpec.builder(method, basePath).queryParams(queryParams).pathParams(pathParams)
+        .auth(auth).body(body).build(), handler);
+  }
+
+  /**
+   * method call sending a request and returning the raw response.
+   * 
+   * @param request request.
+   */
+  public ApiResponse exchange(RequestSpec request) {
+    return exchange(request, BUFFERED_RESPONSE);
+  }
+
+  /**
+   * method call sending a request and handing the response stream to the given handler. Under an
+   * active policy the attempts are buffered, the handler reads the response of the attempt that won.
+   * 
+   * @param request request.
+   * @param handler handler reading the response stream while the connection is open.
+   */
+  public <T> T exchange(RequestSpec request, ResponseHandler<T> handler) {
+    final boolean resilient = request.getPolicy().isActive();
+    if (recordingStore == null && !resilient) {
+      return exchangeLive(request, liveRequest(request), handler);
+    }
+    final ApiResponse response;
+    if (recordingStore != null && recordingStore.isReplaying()) {
+      response = replay(request);
+    } else {
+      response = resilient ? join(ResilientExchange.execute(request, () -> sendLive(request)))
+          : exchangeLive(request, liveRequest(request), BUFFERED_RESPONSE);
+      if (recordingStore != null) {
+        record(request, response);
+      }
     }
-    delete(getHttpRequest(updatedBasePath));
+    try {
+      return handler.handle(response.getStatus(),
+          new ByteArrayInputStream(response.hasBody() ? response.getBody() : EMPTY_BODY));
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while reading response of " + request).build();
+    }
+  }
+
+  /**
+   * Runs one attempt of a call under a policy on the configured http client, so the deadline,
+   * retries and hedges keep its connection, TLS and proxy settings. Cancelling the returned future
+   * aborts the request.
+   */
+  private CompletableFuture<ApiResponse> sendLive(RequestSpec request) {
+    final HttpUriRequest httpRequest = liveRequest(request);
+    final CompletableFuture<ApiResponse> response =
+        CompletableFuture.supplyAsync(() -> exchangeLive(request, httpRequest, BUFFERED_RESPONSE), LIVE_ATTEMPTS);
+    response.whenComplete((result, e) -> {
+      if (response.isCancelled()) {
+        httpRequest.abort();
+      }
+    });
+    return response;
   }
 
-  private String getUpdatedBasePath(String basePath, Map<String, String> pathParams,
-      Map<String, Object> queryParams) {
-    String updatedBasePath = "";
-    if (queryParams != null) {
-      updatedBasePath = buildBasePath(queryParams);
+  private HttpUriRequest liveRequest(RequestSpec request) {
+    final RequestBuilder requestBuilder = RequestBuilder.create(request.getMethod()).setUri(request.toUri(baseUrl));
+    for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      requestBuilder.addHeader(header.getKey(), header.getValue());
     }
-    updatedBasePath =
-        StringUtils.isNotBlank(updatedBasePath) ? basePath + "?" + updatedBasePath : basePath;
-    if (pathParams != null) {
-      updatedBasePath = addPathParams(updatedBasePath, pathParams);
+    if (request.getBody() != null) {
+      requestBuilder.setEntity(new ByteArrayEntity(request.getBody(), ContentType.APPLICATION_JSON));
+    }
+    return requestBuilder.build();
+  }
+
+  private <T> T exchangeLive(RequestSpec request, HttpUriRequest httpRequest, ResponseHandler<T> handler) {
+    final ConcurrencyLimits.Permits permits =
+        ConcurrencyLimits.isEnabled() ? join(ConcurrencyLimits.acquire(endpointKey(request), baseUrl)) : null;
+    boolean dropped = true;
+    try {
+      final HttpResponse response = httpClient.execute(httpRequest);
+      final HttpEntity entity = response.getEntity();
+      final int status = response.getStatusLine().getStatusCode();
+      try (InputStream responseBody = entity != null ? entity.getContent() : new ByteArrayInputStream(EMPTY_BODY)) {
+        // the status decides, a handler failing the test does not count as a drop
+        dropped = isOverloaded(status);
+        return handler.handle(status, responseBody);
+      } finally {
+        EntityUtils.consumeQuietly(entity);
+        if (response instanceof Closeable) {
+          ((Closeable) response).close();
+        }
+      }
+    } catch (IOException e) {
+      dropped = true;
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while calling " + request).build();
+    } finally {
+      if (permits != null && httpRequest.isAborted()) {
+        // an aborted attempt lost a hedge or ran past the deadline, it says nothing about the service
+        permits.cancel();
+      } else if (permits != null) {
+        permits.release(dropped);
+      }
     }
-    return updatedBasePath;
   }
 
   /**
-   * method call for patch request.
+   * method call for async get request.
    * 
    * @param basePath base path.
    * @param queryParams query params.
    * @param pathParams path params.
    */
-  public <T> T patchResourceRestClient(String basePath, Map<String, Object> queryParams,
+  public <T> CompletableFuture<T> getResourceRestClientAsync(String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, Class<T> resourceClass, String auth) {
+    return sendAsync(spec("GET", basePath, queryParams, pathParams, null, auth), resourceClass);
+  }
+
+  /**
+   * method call for async post request.
+   * 
+   * @param basePath base path.
+   * @param queryParams query params.
+   * @param pathParams path params.
+   */
+  public <T> CompletableFuture<T> postResourceRestClientAsync(String basePath, Map<String, Object> queryParams,
       Map<String, String> pathParams, Object obj, Class<T> resourceClass, String auth) {
-    final String updatedBasePath = getUpdatedBasePath(basePath, pathParams, queryParams);
-    if (auth != null) {
-      setHeaders(Arrays.asList(getAuthToken(auth)));
-    }
-    return patch(getHttpRequest(updatedBasePath), obj, resourceClass);
+    return sendAsync(spec("POST", basePath, queryParams, pathParams, obj, auth), resourceClass);
   }
 
   /**
-   * method to add path parameters to the base path.
+   * method call for async put request.
    * 
-   * @param path base path
-   * @param pathParams path parameters
-   * @return updated base path.
+   * @param basePath base path.
+   * @param queryParams query params.
+   * @param pathParams path params.
+   * @param resource resource parameter.
    */
-  private String addPathParams(String path, Map<String, String> pathParams) {
-    String updatedBasePath = path;
-    for (final Map.Entry<String, String> pathParam : pathParams.entrySet()) {
-      final String paramName = pathParam.getKey();
-      updatedBasePath = updatedBasePath.replace("{" + paramName + "}", pathParam.getValue());
-    }
-    return updatedBasePath;
+  public <T> CompletableFuture<T> putResourceRestClientAsync(String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, Object resource, Class<T> resourceClass, String auth) {
+    return sendAsync(spec("PUT", basePath, queryParams, pathParams, resource, auth), resourceClass);
+  }
+
+  /**
+   * method call for async patch request.
+   * 
+   * @param basePath base path.
+   * @param queryParams query params.
+   * @param pathParams path params.
+   */
+  public <T> CompletableFuture<T> patchResourceRestClientAsync(String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, Object obj, Class<T> resourceClass, String auth) {
+    return sendAsync(spec("PATCH", basePath, queryParams, pathParams, obj, auth), resourceClass);
   }
 
   /**
-   * method for building the base path if query parameters are provided.
+   * method call for async delete request.
    * 
-   * @param queryParams map of query parameters
-   * @return updated base path.
+   * @param basePath base path.
+   * @param queryParams query params.
+   * @param pathParams path params.
    */
-  @SuppressWarnings("unchecked")
-  private String buildBasePath(Map<String, Object> queryParams) {
-    final StringBuilder pathBuilder = new StringBuilder();
-    for (final Map.Entry<String, Object> queryParam : queryParams.entrySet()) {
-      final String queryParamKey = queryParam.getKey();
-      final Object queryParamValue = queryParam.getValue();
-      if (queryParamValue instanceof List) {
-        final List<String> queryParamList = (List<String>) queryParamValue;
-        for (final String param : queryParamList) {
-          pathBuilder.append(queryParamKey).append("=").append(param).append("&");
+  public CompletableFuture<Void> deleteResourceRestClientAsync(String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, String auth) {
+    return sendAsync(spec("DELETE", basePath, queryParams, pathParams, null, auth), Void.class);
+  }
+
+  /**
+   * method call sending a raw json body without blocking the calling thread.
+   * 
+   * @param method http method.
+   * @param basePath base path.
+   * @param queryParams query params.
+   * @param pathParams path params.
+   * @param body json body, may be null.
+   * @param auth Authorization value, may be null.
+   */
+  public CompletableFuture<ApiResponse> exchangeAsync(String method, String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, byte[] body, String auth) {
+    return exchangeAsync(RequestSpec.builder(method, basePath).queryParams(queryParams).pathParams(pathParams)
+        .auth(auth).body(body).build());
+  }
+
+  /**
+   * method call sending a request without blocking the calling thread.
+   * 
+   * @param request request.
+   */
+  public CompletableFuture<ApiResponse> exchangeAsync(RequestSpec request) {
+    if (recordingStore != null && recordingStore.isReplaying()) {
+      return CompletableFuture.completedFuture(replay(request));
+    }
+    final CompletableFuture<ApiResponse> response = request.getPolicy().isActive() ? exchangeResilient(request)
+        : sendLimited(request.toUri(baseUrl), request);
+    if (recordingStore == null) {
+      return response;
+    }
+    return response.thenApply(recorded -> {
+      record(request, recorded);
+      return recorded;
+    });
+  }
+
+  /**
+   * Async calls under a policy stay on the async transport, the same one their calls without a
+   * policy use.
+   */
+  private CompletableFuture<ApiResponse> exchangeResilient(RequestSpec request) {
+    final String uri = request.toUri(baseUrl);
+    return ResilientExchange.execute(request, () -> sendLimited(uri, request));
+  }
+
+  /**
+   * Sends through the async transport once the concurrency limits admit the call, see
+   * {@link ConcurrencyLimits}. Cancelling the returned future aborts the exchange, or the send when
+   * the call still waits for its permits; a cancelled call gives its permits back without a sample.
+   */
+  private CompletableFuture<ApiResponse> sendLimited(String uri, RequestSpec request) {
+    final AsyncHttpTransport transport = transport();
+    if (!ConcurrencyLimits.isEnabled()) {
+      return transport.send(uri, request);
+    }
+    final CompletableFuture<ApiResponse> sent = new CompletableFuture<>();
+    ConcurrencyLimits.acquire(endpointKey(request), baseUrl).whenComplete((permits, failure) -> {
+      if (failure != null) {
+        sent.completeExceptionally(failure);
+        return;
+      }
+      if (sent.isDone()) {
+        // cancelled while waiting for the permits
+        permits.cancel();
+        return;
+      }
+      final CompletableFuture<ApiResponse> response;
+      try {
+        response = transport.send(uri, request);
+      } catch (RuntimeException e) {
+        permits.release(true);
+        sent.completeExceptionally(e);
+        return;
+      }
+      sent.whenComplete((result, e) -> {
+        if (sent.isCancelled()) {
+          response.cancel(true);
         }
-      } else {
-        pathBuilder.append(queryParamKey).append("=").append(queryParamValue).append("&");
+      });
+      response.whenComplete((result, e) -> {
+        if (response.isCancelled()) {
+          permits.cancel();
+        } else {
+          permits.release(e != null || isOverloaded(result.getStatus()));
+        }
+        if (e == null) {
+          sent.complete(result);
+        } else {
+          sent.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        }
+      });
+    });
+    return sent;
+  }
+
+  private String endpointKey(RequestSpec request) {
+    return request.getMethod() + " " + baseUrl + UriTemplate.pathTemplate(request.getPath().getTemplate());
+  }
+
+  /**
+   * statuses telling the client to back off, counted as drops by the concurrency limits.
+   */
+  private static boolean isOverloaded(int status) {
+    return status == 429 || status >= 500;
+  }
+
+  private AsyncHttpTransport transport() {
+    return asyncTransport != null ? asyncTransport : AsyncHttpTransport.getDefault();
+  }
+
+  private static <T> T join(CompletableFuture<T> response) {
+    try {
+      return response.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
+      throw e;
+    }
+  }
+
+  private ApiResponse replay(RequestSpec request) {
+    final String uri = recordedUri(request);
+    final ApiResponse response = recordingStore.replay(request.getMethod(), uri, request.getBody());
+    if (response == null) {
+      throw InternalErrorException.builder().internalError()
+          .detail("No recording for " + RecordingStore.key(request.getMethod(), uri, request.getBody())).build();
     }
-    final int length = pathBuilder.length();
-    if (pathBuilder.lastIndexOf("&") == length - 1) {
-      pathBuilder.replace(length - 1, length, "");
+    return response;
+  }
+
+  private void record(RequestSpec request, ApiResponse response) {
+    recordingStore.record(request.getMethod(), recordedUri(request), request.getBody(), response);
+  }
+
+  /**
+   * path and query of a request as the service sees them, the same key a stub server computes.
+   */
+  private String recordedUri(RequestSpec request) {
+    final URI uri = URI.create(request.toUri(baseUrl));
+    return uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+  }
+
+  private <T> T send(RequestSpec request, Class<T> resourceClass) {
+    return readResource(request, exchange(request), resourceClass);
+  }
+
+  private <T> CompletableFuture<T> sendAsync(RequestSpec request, Class<T> resourceClass) {
+    return exchangeAsync(request).thenApply(response -> readResource(request, response, resourceClass));
+  }
+
+  private static RequestSpec spec(String method, String basePath, Map<String, Object> queryParams,
+      Map<String, String> pathParams, Object resource, String auth) {
+    final byte[] body;
+    try {
+      body = resource == null ? null : ObjectCodecs.writer(resource.getClass()).writeValueAsBytes(resource);
+    } catch (JsonProcessingException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while writing request of " + method + " " + basePath).build();
+    }
+    return RequestSpec.builder(method, basePath).queryParams(queryParams).pathParams(pathParams).auth(auth)
+        .body(body).build();
+  }
+
+  private static <T> T readResource(RequestSpec request, ApiResponse response, Class<T> resourceClass) {
+    if (response.getStatus() >= 400) {
+      throw InternalErrorException.builder().internalError()
+          .detail(request + " returned status " + response.getStatus() + ": " + response.getBodyAsString()).build();
+    }
+    if (resourceClass == null || resourceClass == Void.class || !response.hasBody()) {
+      return null;
+    }
+    try {
+      return ObjectCodecs.reader(resourceClass).readValue(response.getBody());
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while reading response of " + request).build();
     }
-    return pathBuilder.toString();
   }
 
   /**
-   * method to return jwt token to set Headers.
-   * 
-   * @param auth Authorization value.
-   * @return jwt token
+   * Reads the status and body stream of a response.
    */
-  private NameValuePair getAuthToken(String auth) {
-    return new BasicNameValuePair("Authorization", auth);
+  public interface ResponseHandler<T> {
+
+    T handle(int status, InputStream body) throws IOException;
+
   }
 
 }
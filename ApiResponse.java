@@ -0,0 +1,32 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Status and raw body of an API call.
+ */
+public class ApiResponse {
+
+  private final int status;
+  private final byte[] body;
+
+  public ApiResponse(int status, byte[] body) {
+    this.status = status;
+    this.body = body;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  public boolean hasBody() {
+    return body != null && body.length > 0;
+  }
+
+  public String getBodyAsString() {
+    return body == null ? null : new String(body, StandardCharsets.UTF_8);
+  }
+
+}
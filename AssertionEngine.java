@@ -0,0 +1,177 @@
+import com.paysafe.op.commons.test.verify.VerifyUtil;
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+import com.paysafe.ss.ledger.component.verify.VerifyAnnotation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates the assertions, annotation checks and post-processor extractions of a test against a
+ * response parsed once. JsonPath expressions are compiled once through {@link JsonPaths} and every
+ * step records its outcome and timing.
+ */
+public class AssertionEngine {
+
+  private final JsonNode response;
+  private final DocumentContext document;
+  private final List<AssertionResult> results = new ArrayList<>();
+
+  /**
+   * Initialize the engine on a parsed response.
+   *
+   * @param response response, a missing node when the response has no body.
+   */
+  public AssertionEngine(JsonNode response) {
+    this(response, JsonPath.using(TestDataConstants.JSON_NODE_CONFIGURATION).parse(response));
+  }
+
+  protected AssertionEngine(JsonNode response, DocumentContext document) {
+    this.response = response;
+    this.document = document;
+  }
+
+  /**
+   * function to parse a raw response once.
+   *
+   * @param response response
+   */
+  public static AssertionEngine of(ApiResponse response) {
+    if (!response.hasBody()) {
+      return new AssertionEngine(MissingNode.getInstance());
+    }
+    try {
+      return new AssertionEngine(TestDataConstants.RESPONSE_READER.readTree(response.getBody()));
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while reading response").build();
+    }
+  }
+
+  public JsonNode getResponse() {
+    return response;
+  }
+
+  public List<AssertionResult> getResults() {
+    return Collections.unmodifiableList(results);
+  }
+
+  /**
+   * function to read a value of the response, null when the path is not present.
+   *
+   * @param path path
+   */
+  public Object read(String path) {
+    try {
+      return JsonPaths.unwrap(document.read(JsonPaths.compile(path)));
+    } catch (PathNotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * function to verify a response value, numbers and booleans are compared by their text.
+   *
+   * @param path path
+   * @param expected expected
+   */
+  public void verifyEquals(String path, String expected) {
+    timed(AssertionResult.ASSERTION, path, expected, () -> {
+      Object actual = read(path);
+      String actualValue = actual == null ? null : String.valueOf(actual);
+      VerifyUtil.verifyEquals(path, expected, actualValue);
+      return actualValue;
+    });
+  }
+
+  /**
+   * function to verify a response value against a validation annotation such as @NotNull or @uuid.
+   *
+   * @param path path
+   * @param annotation annotation
+   */
+  public void verifyAnnotation(String path, String annotation) {
+    timed(AssertionResult.ANNOTATION, path, annotation, () -> {
+      Object actual = read(path);
+      switch (annotation) {
+      case "@NotNull":
+        VerifyUtil.verifyNotNull(TestDataConstants.VERIFICATION_FAILED, actual);
+        break;
+      case "@uuid":
+        VerifyAnnotation.verifyUuid(String.valueOf(actual));
+        break;
+      default:
+        throw new RuntimeException("Annotation not valid");
+      }
+      return actual;
+    });
+  }
+
+  /**
+   * function to extract a response value for the post processor.
+   *
+   * @param path path
+   */
+  public String extract(String path) {
+    return timed(AssertionResult.POST_PROCESSOR, path, null, () -> {
+      Object actual = read(path);
+      return actual == null ? null : String.valueOf(actual);
+    });
+  }
+
+  /**
+   * function to verify the result of a db assertion query, recorded with the query latency.
+   *
+   * @param name name
+   * @param expected expected
+   * @param result result
+   */
+  public void verifyQueryResult(String name, Object expected, DbQueryResult result) {
+    Throwable failure = result.getFailure();
+    if (failure == null) {
+      try {
+        VerifyUtil.verifyEquals(TestDataConstants.VERIFICATION_FAILED, expected, result.getValue());
+      } catch (RuntimeException | Error e) {
+        failure = e;
+      }
+    }
+    results.add(new AssertionResult(AssertionResult.DB_ASSERTION, name, expected, result.getValue(),
+        result.getLatencyNanos(), failure));
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw (RuntimeException) failure;
+    }
+  }
+
+  /**
+   * function to run and time an evaluation step. The outcome is recorded before a failure is
+   * rethrown.
+   *
+   * @param type type
+   * @param name name
+   * @param expected expected
+   * @param step step, returning the actual value
+   */
+  public <T> T timed(String type, String name, Object expected, Supplier<T> step) {
+    long start = System.nanoTime();
+    try {
+      T actual = step.get();
+      results.add(new AssertionResult(type, name, expected, actual, System.nanoTime() - start, null));
+      return actual;
+    } catch (RuntimeException | Error e) {
+      results.add(new AssertionResult(type, name, expected, null, System.nanoTime() - start, e));
+      throw e;
+    }
+  }
+
+}
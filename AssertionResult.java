@@ -0,0 +1,60 @@
+/**
+ * Outcome and timing of a single evaluation step of a test: an assertion, an annotation check, a
+ * db assertion or a post-processor extraction.
+ */
+public class AssertionResult {
+
+  public static final String ASSERTION = "assertion";
+  public static final String ANNOTATION = "annotation";
+  public static final String DB_ASSERTION = "dbAssertion";
+  public static final String POST_PROCESSOR = "postProcessor";
+
+  private final String type;
+  private final String name;
+  private final Object expected;
+  private final Object actual;
+  private final long durationNanos;
+  private final Throwable failure;
+
+  /**
+   * parameterized constructor.
+   */
+  public AssertionResult(String type, String name, Object expected, Object actual, long durationNanos,
+      Throwable failure) {
+    this.type = type;
+    this.name = name;
+    this.expected = expected;
+    this.actual = actual;
+    this.durationNanos = durationNanos;
+    this.failure = failure;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Object getExpected() {
+    return expected;
+  }
+
+  public Object getActual() {
+    return actual;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  public boolean isPassed() {
+    return failure == null;
+  }
+
+}
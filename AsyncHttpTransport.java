@@ -0,0 +1,105 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking HTTP transport on the JDK client. Requests are multiplexed over HTTP/2 when the
+ * server supports it and over pooled keep-alive HTTP/1.1 connections otherwise, so no thread is
+ * held while a request is in flight. The pool is tuned by the jsonTest.http.* properties.
+ *
+ * <p>The JDK client has no per-client pool settings, so jsonTest.http.poolSize and
+ * jsonTest.http.keepAliveSeconds are applied as the jdk.httpclient.connectionPoolSize and
+ * jdk.httpclient.keepalive.timeout system properties when this class is loaded. Those properties
+ * are read once per JVM and apply to every java.net.http client of the process, including clients
+ * of the service under test when it runs in the same JVM; values set on the command line win.
+ */
+public class AsyncHttpTransport {
+
+  static {
+    setDefaultProperty("jdk.httpclient.connectionPoolSize", TestDataConstants.HTTP_POOL_SIZE);
+    setDefaultProperty("jdk.httpclient.keepalive.timeout", TestDataConstants.HTTP_KEEP_ALIVE_SECONDS);
+  }
+
+  private final HttpClient httpClient;
+  private final Duration requestTimeout;
+
+  /**
+   * Initialize with the configured http version and timeouts.
+   *
+   * @param executor executor completing the responses, null for the client default.
+   */
+  public AsyncHttpTransport(Executor executor) {
+    HttpClient.Builder builder = HttpClient.newBuilder()
+        .version(HttpClient.Version.valueOf(TestDataConstants.HTTP_VERSION))
+        .connectTimeout(Duration.ofMillis(TestDataConstants.HTTP_CONNECT_TIMEOUT_MILLIS))
+        .followRedirects(HttpClient.Redirect.NEVER);
+    if (executor != null) {
+      builder.executor(executor);
+    }
+    this.httpClient = builder.build();
+    this.requestTimeout = Duration.ofMillis(TestDataConstants.HTTP_REQUEST_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * function to get the transport shared by the clients created without one.
+   */
+  public static AsyncHttpTransport getDefault() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * function to send a request without blocking.
+   *
+   * @param uri expanded uri of the request
+   * @param spec spec
+   * @return the status and raw body once the response is complete, cancelling it aborts the exchange.
+   */
+  public CompletableFuture<ApiResponse> send(String uri, RequestSpec spec) {
+    byte[] body = spec.getBody();
+    HttpRequest.BodyPublisher publisher =
+        body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body);
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri)).timeout(requestTimeout)
+        .method(spec.getMethod(), publisher);
+    if (body != null) {
+      request.header("Content-Type", "application/json");
+    }
+    for (Map.Entry<String, String> header : spec.getHeaders().entrySet()) {
+      request.header(header.getKey(), header.getValue());
+    }
+    CompletableFuture<HttpResponse<byte[]>> exchange =
+        httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    CompletableFuture<ApiResponse> result = exchange.handle((response, e) -> {
+      if (e != null) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        throw InternalErrorException.builder().internalError().cause(cause)
+            .detail("Exception occurred while calling " + spec).build();
+      }
+      return new ApiResponse(response.statusCode(), response.body());
+    });
+    result.whenComplete((response, e) -> {
+      if (result.isCancelled()) {
+        exchange.cancel(true);
+      }
+    });
+    return result;
+  }
+
+  private static void setDefaultProperty(String name, int value) {
+    if (System.getProperty(name) == null && value > 0) {
+      System.setProperty(name, String.valueOf(value));
+    }
+  }
+
+  private static class Holder {
+    private static final AsyncHttpTransport INSTANCE = new AsyncHttpTransport(null);
+  }
+
+}
@@ -0,0 +1,83 @@
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Time budget and tail latency control of an API call. The deadline bounds the whole call, retries
+ * and hedges included. Retries, with jittered exponential backoff, and hedged requests only apply to
+ * idempotent methods. A hedge is sent when no response came within the hedgePercentile latency of
+ * the endpoint, and the first successful response wins. Zero values leave a control off; a control
+ * that is not set is inherited when a policy overrides another, see {@link #with}.
+ */
+public class CallPolicy {
+
+  public static final CallPolicy NONE = new CallPolicy(0L, 0, 0L, 0.0, 0L);
+
+  private Long deadlineMillis;
+  private Integer retries;
+  private Long retryBackoffMillis;
+  private Double hedgePercentile;
+  private Long hedgeMinDelayMillis;
+
+  /**
+   * parameterized constructor, null controls are not set.
+   */
+  @JsonCreator
+  public CallPolicy(@JsonProperty("deadlineMillis") Long deadlineMillis,
+      @JsonProperty("retries") Integer retries,
+      @JsonProperty("retryBackoffMillis") Long retryBackoffMillis,
+      @JsonProperty("hedgePercentile") Double hedgePercentile,
+      @JsonProperty("hedgeMinDelayMillis") Long hedgeMinDelayMillis) {
+    this.deadlineMillis = deadlineMillis;
+    this.retries = retries;
+    this.retryBackoffMillis = retryBackoffMillis;
+    this.hedgePercentile = hedgePercentile;
+    this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+  }
+
+  public long getDeadlineMillis() {
+    return deadlineMillis == null ? 0 : deadlineMillis;
+  }
+
+  public int getRetries() {
+    return retries == null ? 0 : retries;
+  }
+
+  public long getRetryBackoffMillis() {
+    return retryBackoffMillis == null ? 0 : retryBackoffMillis;
+  }
+
+  public double getHedgePercentile() {
+    return hedgePercentile == null ? 0 : hedgePercentile;
+  }
+
+  public long getHedgeMinDelayMillis() {
+    return hedgeMinDelayMillis == null ? 0 : hedgeMinDelayMillis;
+  }
+
+  public boolean isActive() {
+    return getDeadlineMillis() > 0 || getRetries() > 0 || getHedgePercentile() > 0;
+  }
+
+  /**
+   * function to override this policy with the controls the given policy sets. A control set to 0,
+   * such as "retries": 0, turns it off.
+   *
+   * @param override override, may be null.
+   */
+  public CallPolicy with(CallPolicy override) {
+    if (override == null) {
+      return this;
+    }
+    return new CallPolicy(override.deadlineMillis != null ? override.deadlineMillis : deadlineMillis,
+        override.retries != null ? override.retries : retries,
+        override.retryBackoffMillis != null ? override.retryBackoffMillis : retryBackoffMillis,
+        override.hedgePercentile != null ? override.hedgePercentile : hedgePercentile,
+        override.hedgeMinDelayMillis != null ? override.hedgeMinDelayMillis : hedgeMinDelayMillis);
+  }
+
+  @Override
+  public String toString() {
+    return "deadline " + getDeadlineMillis() + " ms, " + getRetries() + " retries, hedge at p" + getHedgePercentile();
+  }
+
+}
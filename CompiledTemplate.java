@@ -0,0 +1,277 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.jayway.jsonpath.DocumentContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Template compiled once into literal segments and placeholder slots. Supports the
+ * {{method}} and {$var} placeholders of test data and the $.path placeholders of db queries.
+ */
+public class CompiledTemplate {
+
+  private static final int CACHE_SIZE = 4096;
+  private static final int FILE_CACHE_SIZE = 256;
+  private static final int TEXT_KEY_MAX_LENGTH = 1024;
+  private static final Map<String, CompiledTemplate> CACHE = new ConcurrentHashMap<>();
+  private static final Map<String, CompiledTemplate> QUERY_CACHE = new ConcurrentHashMap<>();
+  private static final Map<String, CompiledTemplate> FILE_CACHE =
+      Collections.synchronizedMap(new LinkedHashMap<String, CompiledTemplate>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+          return size() > FILE_CACHE_SIZE;
+        }
+      });
+
+  private final String[] literals;
+  private final Slot[] slots;
+  private final int literalLength;
+  private int sourceHash;
+  private int sourceLength;
+
+  private CompiledTemplate(List<String> literals, List<Slot> slots) {
+    this.literals = literals.toArray(new String[0]);
+    this.slots = slots.toArray(new Slot[0]);
+    int length = 0;
+    for (String literal : literals) {
+      length += literal.length();
+    }
+    this.literalLength = length;
+  }
+
+  /**
+   * function to compile a template, reusing the compiled form of short templates seen before. Whole
+   * files go through {@link #cached(String, String)} instead, so they are not kept as keys.
+   *
+   * @param template template
+   */
+  public static CompiledTemplate cached(String template) {
+    if (template.length() > TEXT_KEY_MAX_LENGTH) {
+      return compile(template);
+    }
+    CompiledTemplate compiled = CACHE.get(template);
+    if (compiled == null) {
+      compiled = compile(template);
+      if (CACHE.size() < CACHE_SIZE) {
+        CACHE.putIfAbsent(template, compiled);
+      }
+    }
+    return compiled;
+  }
+
+  /**
+   * function to compile the content of a file, reusing the compiled form while the file is among
+   * the last files templated and its content did not change.
+   *
+   * @param path path of the file, the cache key.
+   * @param template content of the file
+   */
+  public static CompiledTemplate cached(String path, String template) {
+    CompiledTemplate compiled = FILE_CACHE.get(path);
+    if (compiled != null && compiled.sourceHash == template.hashCode() && compiled.sourceLength == template.length()) {
+      return compiled;
+    }
+    compiled = compile(template);
+    compiled.sourceHash = template.hashCode();
+    compiled.sourceLength = template.length();
+    FILE_CACHE.put(path, compiled);
+    return compiled;
+  }
+
+  /**
+   * function to compile a db query, reusing the compiled form of queries seen before.
+   *
+   * @param query query
+   */
+  public static CompiledTemplate cachedQuery(String query) {
+    CompiledTemplate compiled = QUERY_CACHE.get(query);
+    if (compiled == null) {
+      compiled = compileQuery(query);
+      if (QUERY_CACHE.size() < CACHE_SIZE) {
+        QUERY_CACHE.putIfAbsent(query, compiled);
+      }
+    }
+    return compiled;
+  }
+
+  /**
+   * function to compile a template holding {{method}} and {$var} placeholders.
+   *
+   * @param template template
+   */
+  public static CompiledTemplate compile(String template) {
+    List<String> literals = new ArrayList<>();
+    List<Slot> slots = new ArrayList<>();
+    int length = template.length();
+    int literalStart = 0;
+    int i = 0;
+    while (i < length - 1) {
+      int end = -1;
+      Slot slot = null;
+      if (template.charAt(i) == '{' && template.charAt(i + 1) == '{') {
+        end = indexOnLine(template, "}}", i + 3);
+        if (end > 0) {
+          slot = new Slot(Slot.METHOD, template.substring(i + 2, end));
+          end += 2;
+        }
+      } else if (template.charAt(i) == '{' && template.charAt(i + 1) == '$') {
+        end = indexOnLine(template, "}", i + 3);
+        if (end > 0) {
+          slot = new Slot(Slot.VARIABLE, template.substring(i + 2, end));
+          end += 1;
+        }
+      }
+      if (slot == null) {
+        i++;
+        continue;
+      }
+      literals.add(template.substring(literalStart, i));
+      slots.add(slot);
+      literalStart = end;
+      i = end;
+    }
+    literals.add(template.substring(literalStart));
+    return new CompiledTemplate(literals, slots);
+  }
+
+  /**
+   * function to compile a db query holding $.path placeholders, each ending at the next quote.
+   *
+   * @param query query
+   */
+  public static CompiledTemplate compileQuery(String query) {
+    List<String> literals = new ArrayList<>();
+    List<Slot> slots = new ArrayList<>();
+    int length = query.length();
+    int literalStart = 0;
+    int i = 0;
+    while (i < length - 2) {
+      if (query.charAt(i) != '$' || query.charAt(i + 2) == '\'') {
+        i++;
+        continue;
+      }
+      int end = query.indexOf('\'', i + 2);
+      end = end < 0 ? length : end;
+      literals.add(query.substring(literalStart, i));
+      slots.add(new Slot(Slot.JSON_PATH, query.substring(i + 2, end)));
+      literalStart = end;
+      i = end;
+    }
+    literals.add(query.substring(literalStart));
+    return new CompiledTemplate(literals, slots);
+  }
+
+  public boolean hasPlaceholders() {
+    return slots.length > 0;
+  }
+
+  /**
+   * function to get the literal segments around the placeholders, one more than the placeholders.
+   */
+  public List<String> getLiterals() {
+    return Collections.unmodifiableList(Arrays.asList(literals));
+  }
+
+  /**
+   * function to get the $.path placeholders of a db query, in order.
+   */
+  public List<String> getJsonPaths() {
+    List<String> paths = new ArrayList<>();
+    for (Slot slot : slots) {
+      if (slot.kind == Slot.JSON_PATH) {
+        paths.add(slot.name);
+      }
+    }
+    return paths;
+  }
+
+  /**
+   * function to render the template against the context bound to the current thread.
+   */
+  public String render() {
+    return render((Function<String, Object>) null);
+  }
+
+  /**
+   * function to render the template, $.path placeholders are read from the given document.
+   *
+   * @param document document
+   */
+  public String render(DocumentContext document) {
+    return render(path -> JsonPaths.unwrap(document.read(JsonPaths.compile(path))));
+  }
+
+  /**
+   * function to render the template, $.path placeholders are resolved by the given function.
+   *
+   * @param values values by path, only needed for db queries.
+   */
+  public String render(Function<String, Object> values) {
+    if (slots.length == 0) {
+      return literals[0];
+    }
+    StringBuilder rendered = new StringBuilder(literalLength + slots.length * 36);
+    for (int i = 0; i < slots.length; i++) {
+      rendered.append(literals[i]).append(slots[i].resolve(values));
+    }
+    return rendered.append(literals[slots.length]).toString();
+  }
+
+  private static int indexOnLine(String template, String token, int from) {
+    int end = template.indexOf(token, from);
+    if (end < 0) {
+      return -1;
+    }
+    for (int i = from - 1; i < end; i++) {
+      char c = template.charAt(i);
+      if (c == '\n' || c == '\r') {
+        return -1;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * A placeholder of the template.
+   */
+  private static class Slot {
+
+    static final int METHOD = 0;
+    static final int VARIABLE = 1;
+    static final int JSON_PATH = 2;
+
+    private final int kind;
+    private final String name;
+    private final HelperRegistry.HelperInvocation helper;
+
+    Slot(int kind, String name) {
+      this.kind = kind;
+      this.name = name;
+      this.helper = kind == METHOD ? HelperRegistry.getInstance().bind(name) : null;
+    }
+
+    String resolve(Function<String, Object> values) {
+      switch (kind) {
+      case METHOD:
+        return helper.invoke();
+      case VARIABLE:
+        String value = RegExParser.getValue(name);
+        if (value == null) {
+          throw InternalErrorException.builder().internalError().detail("Variable " + name + " is not assigned")
+              .build();
+        }
+        return value;
+      default:
+        return String.valueOf(values.apply(name));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adaptive concurrency limits of the calls to the services and the database, enabled with
+ * jsonTest.limiter.enabled. A call takes a permit of its endpoint, then of its base url, so a slow
+ * endpoint is throttled without starving the others and the service as a whole is still bounded.
+ * Past CACHE_SIZE endpoint limiters, the calls of a new endpoint only take the permit of their
+ * service.
+ */
+public class ConcurrencyLimits {
+
+  private static final int CACHE_SIZE = 4096;
+  private static final String ROW_FORMAT = "%-64s %7s %9s %7s %7s %10s %10s %10s%n";
+  private static final Map<String, AdaptiveLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+  private ConcurrencyLimits() {
+  }
+
+  public static boolean isEnabled() {
+    return TestDataConstants.LIMITER_ENABLED;
+  }
+
+  /**
+   * function to get the limiter of a key, created with the configured algorithm and bounds.
+   *
+   * @param key key
+   */
+  public static AdaptiveLimiter get(String key) {
+    AdaptiveLimiter limiter = LIMITERS.get(key);
+    return limiter != null ? limiter : LIMITERS.computeIfAbsent(key, ConcurrencyLimits::newLimiter);
+  }
+
+  /**
+   * function to get the permits of an endpoint and of its service.
+   *
+   * @param endpoint endpoint key, such as the method and path template of a call.
+   * @param service service key
+   */
+  public static CompletableFuture<Permits> acquire(String endpoint, String service) {
+    AdaptiveLimiter endpointLimiter = LIMITERS.get(endpoint);
+    if (endpointLimiter == null && LIMITERS.size() < CACHE_SIZE) {
+      endpointLimiter = get(endpoint);
+    }
+    if (endpointLimiter == null) {
+      return get(service).acquire().thenApply(servicePermit -> new Permits(null, servicePermit));
+    }
+    return endpointLimiter.acquire().thenCompose(endpointPermit -> get(service).acquire()
+        .thenApply(servicePermit -> new Permits(endpointPermit, servicePermit)));
+  }
+
+  private static AdaptiveLimiter newLimiter(String key) {
+    return new AdaptiveLimiter(key, AdaptiveLimiter.Algorithm.valueOf(TestDataConstants.LIMITER_ALGORITHM),
+        TestDataConstants.LIMITER_INITIAL_LIMIT, TestDataConstants.LIMITER_MIN_LIMIT,
+        TestDataConstants.LIMITER_MAX_LIMIT);
+  }
+
+  /**
+   * function to get the limiters created so far.
+   */
+  public static List<AdaptiveLimiter> getLimiters() {
+    List<AdaptiveLimiter> limiters = new ArrayList<>(LIMITERS.values());
+    limiters.sort((left, right) -> left.getName().compareTo(right.getName()));
+    return limiters;
+  }
+
+  /**
+   * function to format the current limit, load and queueing delay of every limiter.
+   */
+  public static String report() {
+    StringBuilder report = new StringBuilder();
+    report.append(String.format(Locale.ROOT, ROW_FORMAT, "limiter", "limit", "inFlight", "queued", "drops",
+        "wait p50", "wait p99", "rtt p99"));
+    for (AdaptiveLimiter limiter : getLimiters()) {
+      report.append(String.format(Locale.ROOT, ROW_FORMAT, limiter.getName(), limiter.getLimit(),
+          limiter.getInFlight(), limiter.getQueued(), limiter.getDrops(),
+          millis(limiter.getQueueDelay().getValueAtPercentile(50)),
+          millis(limiter.getQueueDelay().getValueAtPercentile(99)),
+          millis(limiter.getLatency().getValueAtPercentile(99))));
+    }
+    return report.toString();
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+  }
+
+  /**
+   * Permits of one call.
+   */
+  public static class Permits {
+
+    private final AdaptiveLimiter.Permit endpoint;
+    private final AdaptiveLimiter.Permit service;
+
+    Permits(AdaptiveLimiter.Permit endpoint, AdaptiveLimiter.Permit service) {
+      this.endpoint = endpoint;
+      this.service = service;
+    }
+
+    /**
+     * function to end the call.
+     *
+     * @param dropped whether the call failed or was rejected by the service.
+     */
+    public void release(boolean dropped) {
+      service.release(dropped);
+      if (endpoint != null) {
+        endpoint.release(dropped);
+      }
+    }
+
+    /**
+     * function to end a call that was cancelled, such as the losing attempt of a hedged call.
+     */
+    public void cancel() {
+      service.cancel();
+      if (endpoint != null) {
+        endpoint.cancel();
+      }
+    }
+  }
+
+}
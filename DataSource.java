@@ -0,0 +1,205 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows of a data driven test, read one line at a time from a csv file with a header line or from a
+ * jsonl file of flat objects. Rows are only read when a worker asks for the next one, so a dataset
+ * of any size is never held in memory. Csv values may be quoted with double quotes but may not
+ * span lines.
+ */
+public class DataSource implements Closeable {
+
+  private final Path path;
+  private final BufferedReader reader;
+  private final boolean csv;
+  private final List<String> header;
+  private int rowNumber;
+
+  private DataSource(Path path, BufferedReader reader, boolean csv, List<String> header) {
+    this.path = path;
+    this.reader = reader;
+    this.csv = csv;
+    this.header = header;
+  }
+
+  /**
+   * function to open a csv or jsonl data source, chosen by the file extension.
+   *
+   * @param path path
+   */
+  public static DataSource open(Path path) {
+    boolean csv = path.toString().endsWith(".csv");
+    BufferedReader reader = null;
+    try {
+      reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+      List<String> header = Collections.emptyList();
+      if (csv) {
+        String line = reader.readLine();
+        header = line == null ? header : Collections.unmodifiableList(parseCsvLine(line));
+      }
+      return new DataSource(path, reader, csv, header);
+    } catch (IOException e) {
+      closeQuietly(reader);
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while opening data source " + path).build();
+    }
+  }
+
+  /**
+   * function to read the field names of a data source, the csv header or the fields of the first
+   * jsonl row.
+   *
+   * @param path path
+   */
+  public static List<String> readFieldNames(Path path) {
+    try (DataSource dataSource = open(path)) {
+      if (dataSource.csv) {
+        return dataSource.header;
+      }
+      Row first = dataSource.next();
+      return first == null ? Collections.emptyList() : new ArrayList<>(first.getFields().keySet());
+    }
+  }
+
+  /**
+   * function to read the next row, safe to call from several workers.
+   *
+   * @return the row, null when every row was read.
+   */
+  public synchronized Row next() {
+    try {
+      String line;
+      do {
+        line = reader.readLine();
+        if (line == null) {
+          return null;
+        }
+      } while (line.isBlank());
+      rowNumber++;
+      return new Row(rowNumber, csv ? csvRow(line) : jsonRow(line));
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while reading row " + (rowNumber + 1) + " of " + path).build();
+    }
+  }
+
+  /**
+   * function to get the number of rows read so far.
+   */
+  public synchronized int getRowCount() {
+    return rowNumber;
+  }
+
+  @Override
+  public void close() {
+    closeQuietly(reader);
+  }
+
+  private Map<String, String> csvRow(String line) {
+    List<String> values = parseCsvLine(line);
+    if (values.size() != header.size()) {
+      throw InternalErrorException.builder().internalError()
+          .detail("Row " + rowNumber + " of " + path + " has " + values.size() + " values, expected " + header.size())
+          .build();
+    }
+    Map<String, String> row = new LinkedHashMap<>(header.size() * 2);
+    for (int i = 0; i < header.size(); i++) {
+      row.put(header.get(i), values.get(i));
+    }
+    return row;
+  }
+
+  private Map<String, String> jsonRow(String line) throws IOException {
+    JsonNode node = TestDataConstants.MAPPER.readTree(line);
+    if (!node.isObject()) {
+      throw InternalErrorException.builder().internalError()
+          .detail("Row " + rowNumber + " of " + path + " is not a json object").build();
+    }
+    Map<String, String> row = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      JsonNode value = field.getValue();
+      row.put(field.getKey(), value.isNull() ? null : value.isValueNode() ? value.asText() : value.toString());
+    }
+    return row;
+  }
+
+  private static List<String> parseCsvLine(String line) {
+    List<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          value.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          value.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        values.add(value.toString());
+        value.setLength(0);
+      } else {
+        value.append(c);
+      }
+    }
+    values.add(value.toString());
+    return values;
+  }
+
+  /**
+   * A row of the data source.
+   */
+  public static class Row {
+
+    private final int number;
+    private final Map<String, String> fields;
+
+    Row(int number, Map<String, String> fields) {
+      this.number = number;
+      this.fields = fields;
+    }
+
+    /**
+     * function to get the number of the row, starting at 1.
+     */
+    public int getNumber() {
+      return number;
+    }
+
+    public Map<String, String> getFields() {
+      return fields;
+    }
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    try {
+      if (closeable != null) {
+        closeable.close();
+      }
+    } catch (IOException e) {
+      // nothing left to read from it
+    }
+  }
+
+}
@@ -1,20 +1,206 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.Query;
 
 @Component
-public class DbQueries {
+public class DbQueries implements AutoCloseable {
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
 
   private EntityManager entityManager;
+  private EntityManagerFactory entityManagerFactory;
+  private ExecutorService queryExecutor;
+  private final Map<String, Boolean> namedQueries = new ConcurrentHashMap<>();
 
   public DbQueries(EntityManager entityManager) {
     this.entityManager = entityManager;
   }
 
+  /**
+   * Initialize with a factory, so the queries of a test run concurrently, each on its own entity
+   * manager, on a pool bounded by {@link TestDataConstants#DB_QUERY_PARALLELISM}.
+   *
+   * @param entityManager entityManager
+   * @param entityManagerFactory entityManagerFactory
+   */
+  @Autowired
+  public DbQueries(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+    this.entityManager = entityManager;
+    this.entityManagerFactory = entityManagerFactory;
+    this.queryExecutor = Executors.newFixedThreadPool(TestDataConstants.DB_QUERY_PARALLELISM, runnable -> {
+      Thread thread = new Thread(runnable, "db-assertion-" + THREAD_COUNT.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * function to stop the query pool, queries already submitted still complete.
+   */
+  @Override
+  @PreDestroy
+  public void close() {
+    if (queryExecutor != null) {
+      queryExecutor.shutdown();
+    }
+  }
+
   public Object executeSelectQuery(String query) {
     Query emQuery = entityManager.createQuery(query);
     return emQuery.getSingleResult();
   }
 
+  /**
+   * function to run the select queries of a test, concurrently when a factory is available.
+   * Parameterized queries are registered once as named queries and only their parameters change
+   * between tests.
+   *
+   * @param queries queries with their parameters bound
+   * @return results in the order of the queries, each with its own latency.
+   */
+  public List<DbQueryResult> executeSelectQueries(List<DbQuery.Bound> queries) {
+    List<DbQueryResult> results = new ArrayList<>(queries.size());
+    if (entityManagerFactory == null || queries.size() < 2) {
+      for (DbQuery.Bound query : queries) {
+        results.add(timedQuery(entityManager, query));
+      }
+      return results;
+    }
+    List<Future<DbQueryResult>> futures = new ArrayList<>(queries.size());
+    for (DbQuery.Bound query : queries) {
+      futures.add(queryExecutor.submit(() -> {
+        EntityManager queryEntityManager = entityManagerFactory.createEntityManager();
+        try {
+          return timedQuery(queryEntityManager, query);
+        } finally {
+          queryEntityManager.close();
+        }
+      }));
+    }
+    try {
+      for (Future<DbQueryResult> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw InternalErrorException.builder().internalError().cause(e).detail("Interrupted while running db queries")
+          .build();
+    } catch (ExecutionException e) {
+      throw InternalErrorException.builder().internalError().cause(e.getCause())
+          .detail("Exception occurred while running db queries").build();
+    }
+    return results;
+  }
+
+  /**
+   * Runs a query once the concurrency limits of the query and of the database admit it, see
+   * {@link ConcurrencyLimits}. The latency does not include the wait for the limits.
+   */
+  private DbQueryResult timedQuery(EntityManager queryEntityManager, DbQuery.Bound query) {
+    ConcurrencyLimits.Permits permits = ConcurrencyLimits.isEnabled()
+        ? ConcurrencyLimits.acquire("db " + query.getQuery().getName(), "db").join()
+        : null;
+    long start = System.nanoTime();
+    boolean dropped = true;
+    try {
+      Object value = createQuery(queryEntityManager, query).getSingleResult();
+      dropped = false;
+      return new DbQueryResult(query.toString(), value, System.nanoTime() - start, null);
+    } catch (RuntimeException e) {
+      return new DbQueryResult(query.toString(), null, System.nanoTime() - start, e);
+    } finally {
+      if (permits != null) {
+        permits.release(dropped);
+      }
+    }
+  }
+
+  private Query createQuery(EntityManager queryEntityManager, DbQuery.Bound bound) {
+    DbQuery dbQuery = bound.getQuery();
+    if (!dbQuery.isParameterized()) {
+      return queryEntityManager.createQuery(bound.getText());
+    }
+    Query query = registerNamedQuery(queryEntityManager, dbQuery)
+        ? queryEntityManager.createNamedQuery(dbQuery.getName())
+        : queryEntityManager.createQuery(dbQuery.getQuery());
+    for (Map.Entry<String, Object> parameter : bound.getParameters().entrySet()) {
+      Class<?> type = query.getParameter(parameter.getKey()).getParameterType();
+      query.setParameter(parameter.getKey(), convertParameter(parameter.getValue(), type));
+    }
+    return query;
+  }
+
+  private boolean registerNamedQuery(EntityManager queryEntityManager, DbQuery dbQuery) {
+    return namedQueries.computeIfAbsent(dbQuery.getName(), name -> {
+      try {
+        queryEntityManager.getEntityManagerFactory().addNamedQuery(name,
+            queryEntityManager.createQuery(dbQuery.getQuery()));
+        return Boolean.TRUE;
+      } catch (RuntimeException e) {
+        return Boolean.FALSE;
+      }
+    });
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static Object convertParameter(Object value, Class<?> type) {
+    if (value == null || type == null || type.isInstance(value)) {
+      return value;
+    }
+    String text = String.valueOf(value);
+    if (type == Long.class || type == long.class) {
+      return Long.valueOf(text);
+    }
+    if (type == Integer.class || type == int.class) {
+      return Integer.valueOf(text);
+    }
+    if (type == Short.class || type == short.class) {
+      return Short.valueOf(text);
+    }
+    if (type == Double.class || type == double.class) {
+      return Double.valueOf(text);
+    }
+    if (type == Float.class || type == float.class) {
+      return Float.valueOf(text);
+    }
+    if (type == BigDecimal.class) {
+      return new BigDecimal(text);
+    }
+    if (type == BigInteger.class) {
+      return new BigInteger(text);
+    }
+    if (type == Boolean.class || type == boolean.class) {
+      return Boolean.valueOf(text);
+    }
+    if (type == UUID.class) {
+      return UUID.fromString(text);
+    }
+    if (type == String.class) {
+      return text;
+    }
+    if (type.isEnum()) {
+      return Enum.valueOf((Class<Enum>) type, text);
+    }
+    return value;
+  }
+
 }
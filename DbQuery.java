@@ -0,0 +1,160 @@
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Db assertion query compiled once into a parameterized query. Every '$.path' placeholder of the
+ * validation query becomes a named bind parameter, so the query text stays the same between tests
+ * and the query plans are reused. Queries with a placeholder inside a longer literal, such as
+ * 'prefix-$.path', cannot be parameterized and are rendered as text.
+ */
+public class DbQuery {
+
+  private static final String PARAMETER_PREFIX = "p";
+  private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+  private final String name;
+  private final String query;
+  private final List<String> parameterPaths;
+  private final boolean[] textParameters;
+  private final CompiledTemplate template;
+
+  private DbQuery(String name, String query, List<String> parameterPaths, boolean[] textParameters,
+      CompiledTemplate template) {
+    this.name = name;
+    this.query = query;
+    this.parameterPaths = parameterPaths;
+    this.textParameters = textParameters;
+    this.template = template;
+  }
+
+  /**
+   * function to compile a validation query.
+   *
+   * @param name name the query is registered under, unique per validation query.
+   * @param query query
+   */
+  public static DbQuery compile(String name, String query) {
+    CompiledTemplate template = CompiledTemplate.compileQuery(query);
+    if (!template.hasPlaceholders()) {
+      return new DbQuery(name, query, Collections.emptyList(), new boolean[0], null);
+    }
+    List<String> literals = template.getLiterals();
+    List<String> paths = template.getJsonPaths();
+    boolean[] textParameters = new boolean[paths.size()];
+    StringBuilder parameterized = new StringBuilder(query.length());
+    String literal = literals.get(0);
+    for (int i = 0; i < paths.size(); i++) {
+      String next = literals.get(i + 1);
+      boolean quoted = literal.endsWith("'");
+      if (quoted && !next.startsWith("'") || !quoted && next.startsWith("'")) {
+        return new DbQuery(name, query, paths, textParameters, template);
+      }
+      textParameters[i] = quoted;
+      parameterized.append(quoted ? literal.substring(0, literal.length() - 1) : literal)
+          .append(':').append(PARAMETER_PREFIX).append(i);
+      literal = quoted ? next.substring(1) : next;
+    }
+    parameterized.append(literal);
+    return new DbQuery(name + "#" + Integer.toHexString(parameterized.toString().hashCode()),
+        parameterized.toString(), paths, textParameters, null);
+  }
+
+  /**
+   * function to compile the queries of a validation key.
+   *
+   * @param key key of the db validation
+   * @param queries queries of the validation, in order.
+   */
+  public static List<DbQuery> compileAll(String key, Map<String, String> queries) {
+    List<DbQuery> compiled = new ArrayList<>(queries.size());
+    int i = 0;
+    for (String query : queries.keySet()) {
+      compiled.add(compile("jsonTest." + key + "." + i++, query));
+    }
+    return Collections.unmodifiableList(compiled);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getQuery() {
+    return query;
+  }
+
+  /**
+   * function to check whether the query text is the same for every test.
+   */
+  public boolean isParameterized() {
+    return template == null;
+  }
+
+  /**
+   * function to bind the parameters of the query to response values.
+   *
+   * @param values values by path
+   */
+  public Bound bind(Function<String, Object> values) {
+    if (!isParameterized()) {
+      return new Bound(this, template.render(values), Collections.emptyMap());
+    }
+    Map<String, Object> parameters = new HashMap<>();
+    for (int i = 0; i < parameterPaths.size(); i++) {
+      Object value = values.apply(parameterPaths.get(i));
+      parameters.put(PARAMETER_PREFIX + i, textParameters[i] ? String.valueOf(value) : literal(value));
+    }
+    return new Bound(this, query, parameters);
+  }
+
+  // response numbers are read as their plain text, an unquoted parameter binds them back as a number
+  private static Object literal(Object value) {
+    if (value instanceof Number || value instanceof Boolean) {
+      return value;
+    }
+    String text = String.valueOf(value);
+    if (NUMBER.matcher(text).matches()) {
+      return new BigDecimal(text);
+    }
+    return text;
+  }
+
+  /**
+   * A query with its parameters bound for one test.
+   */
+  public static class Bound {
+
+    private final DbQuery query;
+    private final String text;
+    private final Map<String, Object> parameters;
+
+    Bound(DbQuery query, String text, Map<String, Object> parameters) {
+      this.query = query;
+      this.text = text;
+      this.parameters = parameters;
+    }
+
+    public DbQuery getQuery() {
+      return query;
+    }
+
+    public String getText() {
+      return text;
+    }
+
+    public Map<String, Object> getParameters() {
+      return parameters;
+    }
+
+    @Override
+    public String toString() {
+      return parameters.isEmpty() ? text : text + " " + parameters;
+    }
+  }
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Value and latency of a db assertion query.
+ */
+public class DbQueryResult {
+
+  private final String query;
+  private final Object value;
+  private final long latencyNanos;
+  private final RuntimeException failure;
+
+  /**
+   * parameterized constructor.
+   */
+  public DbQueryResult(String query, Object value, long latencyNanos, RuntimeException failure) {
+    this.query = query;
+    this.value = value;
+    this.latencyNanos = latencyNanos;
+    this.failure = failure;
+  }
+
+  public String getQuery() {
+    return query;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  public long getLatencyNanos() {
+    return latencyNanos;
+  }
+
+  public RuntimeException getFailure() {
+    return failure;
+  }
+
+}
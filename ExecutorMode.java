@@ -0,0 +1,41 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executors available to the parallel test runner.
+ */
+public enum ExecutorMode {
+
+  /**
+   * one virtual thread per test case, falls back to fork-join when the JVM has no virtual threads.
+   */
+  VIRTUAL_THREADS {
+    @Override
+    public ExecutorService newExecutor(int parallelism) {
+      try {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+        return FORK_JOIN.newExecutor(parallelism);
+      }
+    }
+  },
+
+  /**
+   * fork-join pool with the configured parallelism.
+   */
+  FORK_JOIN {
+    @Override
+    public ExecutorService newExecutor(int parallelism) {
+      return new ForkJoinPool(parallelism);
+    }
+  };
+
+  /**
+   * function to create the executor for a run.
+   *
+   * @param parallelism parallelism
+   */
+  public abstract ExecutorService newExecutor(int parallelism);
+
+}
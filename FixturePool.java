@@ -0,0 +1,189 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ready-made results of a poolable prerequisite file. Background producers run the file ahead of
+ * the tests and keep size entities, each with its post-processor variables, ready to lease. A test
+ * leases one instantly, and runs the file itself only when the pool is empty. A lease is returned
+ * for the next test when the pool is reusable and the test passed, otherwise it is discarded and
+ * replaced.
+ */
+public class FixturePool implements AutoCloseable {
+
+  private final String fileName;
+  private final int size;
+  private final boolean reusable;
+  private final Supplier<VariableContext> producer;
+  private final ExecutorService producers;
+  private final Queue<VariableContext> ready = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger available = new AtomicInteger();
+  private final AtomicInteger producing = new AtomicInteger();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private volatile boolean closed;
+
+  /**
+   * Initialize the pool and start filling it.
+   *
+   * @param fileName prerequisite file
+   * @param size number of entities kept ready
+   * @param producerThreads number of background producers
+   * @param reusable whether an entity may serve several tests, one at a time.
+   * @param producer runs the prerequisite file and returns the scope holding its variables.
+   */
+  public FixturePool(String fileName, int size, int producerThreads, boolean reusable,
+      Supplier<VariableContext> producer) {
+    this.fileName = fileName;
+    this.size = Math.max(1, size);
+    this.reusable = reusable;
+    this.producer = producer;
+    this.producers = Executors.newFixedThreadPool(Math.max(1, producerThreads), task -> {
+      Thread thread = new Thread(task, "fixture-pool-" + fileName);
+      thread.setDaemon(true);
+      return thread;
+    });
+    refill();
+  }
+
+  /**
+   * function to lease an entity, produced on the given executor when none is ready.
+   *
+   * @param executor executor
+   */
+  public CompletableFuture<Lease> lease(Executor executor) {
+    VariableContext context = ready.poll();
+    if (context != null) {
+      available.decrementAndGet();
+      hits.incrementAndGet();
+      refill();
+      return CompletableFuture.completedFuture(new Lease(context));
+    }
+    misses.incrementAndGet();
+    refill();
+    return CompletableFuture.supplyAsync(() -> new Lease(produce()), executor);
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public int getAvailable() {
+    return available.get();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getFailures() {
+    return failures.get();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    producers.shutdownNow();
+    ready.clear();
+    available.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return fileName + ": " + available.get() + "/" + size + " ready, " + hits.get() + " hits, " + misses.get()
+        + " misses, " + failures.get() + " failed productions";
+  }
+
+  /**
+   * Start producers until size entities are ready or being produced. A failed production is not
+   * retried until the next lease, so a broken prerequisite does not keep the producers busy.
+   */
+  private void refill() {
+    while (!closed && available.get() + producing.get() < size) {
+      if (producing.incrementAndGet() + available.get() > size) {
+        producing.decrementAndGet();
+        return;
+      }
+      try {
+        producers.execute(this::produceReady);
+      } catch (RejectedExecutionException e) {
+        producing.decrementAndGet();
+        return;
+      }
+    }
+  }
+
+  private void produceReady() {
+    try {
+      VariableContext context = produce();
+      if (!closed) {
+        ready.offer(context);
+        available.incrementAndGet();
+      }
+    } catch (RuntimeException e) {
+      failures.incrementAndGet();
+    } finally {
+      producing.decrementAndGet();
+    }
+  }
+
+  private VariableContext produce() {
+    try {
+      return producer.get();
+    } catch (RuntimeException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Prerequisite " + fileName + " failed").build();
+    }
+  }
+
+  /**
+   * An entity leased by one test.
+   */
+  public class Lease {
+
+    private final VariableContext context;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Lease(VariableContext context) {
+      this.context = context;
+    }
+
+    public VariableContext getContext() {
+      return context;
+    }
+
+    /**
+     * function to end the lease, the entity goes back to the pool when it is reusable and the test
+     * left it usable.
+     *
+     * @param usable usable
+     */
+    public void release(boolean usable) {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      if (reusable && usable && !closed && available.get() < size) {
+        ready.offer(context);
+        available.incrementAndGet();
+      } else {
+        refill();
+      }
+    }
+  }
+
+}
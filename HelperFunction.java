@@ -0,0 +1,18 @@
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a public method of a {@link HelperProvider} as a {{helper}} placeholder.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface HelperFunction {
+
+  /**
+   * placeholder name, defaults to the method name.
+   */
+  String value() default "";
+
+}
@@ -1,13 +1,74 @@
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
-public class HelperMethods {
+public class HelperMethods implements HelperProvider {
+
+  private static final char[] ALPHANUMERIC =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+  private final Map<String, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
 
   /**
-   * function to generate UUID.
+   * function to generate a random (version 4) UUID. Uses the thread local random instead of the
+   * shared secure random of {@link UUID#randomUUID()}, so concurrent tests do not contend.
    *
    */
-
+  @HelperFunction
   public String generateUuid() {
-    return UUID.randomUUID().toString();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+    long leastSigBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+    return new UUID(mostSigBits, leastSigBits).toString();
+  }
+
+  /**
+   * function to generate a random int between min and max, both inclusive.
+   *
+   * @param min min
+   * @param max max
+   */
+  @HelperFunction
+  public int randomInt(int min, int max) {
+    return (int) ThreadLocalRandom.current().nextLong(min, (long) max + 1);
+  }
+
+  /**
+   * function to generate a random alphanumeric string.
+   *
+   * @param length length
+   */
+  @HelperFunction
+  public String randomAlphanumeric(int length) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    char[] value = new char[length];
+    for (int i = 0; i < length; i++) {
+      value[i] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+    }
+    return new String(value);
+  }
+
+  /**
+   * function to get the current UTC time in ISO-8601 format.
+   *
+   */
+  @HelperFunction
+  public String now() {
+    return Instant.now().toString();
+  }
+
+  /**
+   * function to get the current UTC time in the given format.
+   *
+   * @param pattern DateTimeFormatter pattern
+   */
+  @HelperFunction
+  public String now(String pattern) {
+    return ZonedDateTime.now(ZoneOffset.UTC).format(formatters.computeIfAbsent(pattern, DateTimeFormatter::ofPattern));
   }
 }
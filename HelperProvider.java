@@ -0,0 +1,7 @@
+/**
+ * Source of helper functions. Implementations are discovered through
+ * META-INF/services/HelperProvider and contribute their {@link HelperFunction} methods.
+ */
+public interface HelperProvider {
+
+}
@@ -0,0 +1,210 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the helper functions available to {{helper}} placeholders. Helpers are discovered
+ * once, {@link HelperMethods} and every {@link HelperProvider} on the class path, and every
+ * placeholder expression such as randomInt(1,100) is bound once to a method handle with its
+ * arguments already converted.
+ */
+public class HelperRegistry {
+
+  private static final int CACHE_SIZE = 4096;
+
+  private final Map<String, List<MethodHandle>> helpers;
+  private final Map<String, HelperInvocation> bindings = new ConcurrentHashMap<>();
+
+  private HelperRegistry(Map<String, List<MethodHandle>> helpers) {
+    this.helpers = Collections.unmodifiableMap(helpers);
+  }
+
+  public static HelperRegistry getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * function to bind a placeholder expression, name or name(arg, 'text', ...), to its helper.
+   * Unknown helpers and invalid arguments fail when the placeholder is rendered.
+   *
+   * @param expression expression
+   */
+  public HelperInvocation bind(String expression) {
+    HelperInvocation invocation = bindings.get(expression);
+    if (invocation == null) {
+      invocation = compile(expression);
+      if (bindings.size() < CACHE_SIZE) {
+        bindings.putIfAbsent(expression, invocation);
+      }
+    }
+    return invocation;
+  }
+
+  private HelperInvocation compile(String expression) {
+    String name = expression.trim();
+    List<String> arguments = Collections.emptyList();
+    int open = name.indexOf('(');
+    if (open > 0 && name.endsWith(")")) {
+      arguments = splitArguments(name.substring(open + 1, name.length() - 1));
+      name = name.substring(0, open).trim();
+    }
+    for (MethodHandle handle : helpers.getOrDefault(name, Collections.emptyList())) {
+      Object[] converted = convertArguments(handle.type(), arguments);
+      if (converted != null) {
+        MethodHandle bound = MethodHandles.insertArguments(handle, 0, converted);
+        return new HelperInvocation(expression, bound.asType(MethodType.methodType(Object.class)), null);
+      }
+    }
+    return new HelperInvocation(expression, null, "No helper method matches " + expression);
+  }
+
+  private static List<String> splitArguments(String arguments) {
+    List<String> split = new ArrayList<>();
+    if (arguments.trim().isEmpty()) {
+      return split;
+    }
+    StringBuilder current = new StringBuilder();
+    char quote = 0;
+    for (int i = 0; i < arguments.length(); i++) {
+      char c = arguments.charAt(i);
+      if (quote == 0 && (c == '\'' || c == '"')) {
+        quote = c;
+      } else if (c == quote) {
+        quote = 0;
+      } else if (quote == 0 && c == ',') {
+        split.add(current.toString().trim());
+        current.setLength(0);
+        continue;
+      }
+      current.append(c);
+    }
+    split.add(current.toString().trim());
+    return split;
+  }
+
+  private static Object[] convertArguments(MethodType type, List<String> arguments) {
+    if (type.parameterCount() != arguments.size()) {
+      return null;
+    }
+    Object[] converted = new Object[arguments.size()];
+    try {
+      for (int i = 0; i < converted.length; i++) {
+        converted[i] = convertArgument(type.parameterType(i), arguments.get(i));
+      }
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    return converted;
+  }
+
+  private static Object convertArgument(Class<?> type, String argument) {
+    boolean quoted = argument.length() > 1 && (argument.charAt(0) == '\'' || argument.charAt(0) == '"')
+        && argument.charAt(argument.length() - 1) == argument.charAt(0);
+    String value = quoted ? argument.substring(1, argument.length() - 1) : argument;
+    if (type == String.class) {
+      return value;
+    }
+    if (quoted) {
+      throw new IllegalArgumentException(argument + " is not a " + type.getSimpleName());
+    }
+    if (type == int.class || type == Integer.class) {
+      return Integer.valueOf(value);
+    }
+    if (type == long.class || type == Long.class) {
+      return Long.valueOf(value);
+    }
+    if (type == double.class || type == Double.class) {
+      return Double.valueOf(value);
+    }
+    if ((type == boolean.class || type == Boolean.class) && ("true".equals(value) || "false".equals(value))) {
+      return Boolean.valueOf(value);
+    }
+    throw new IllegalArgumentException(argument + " is not a " + type.getSimpleName());
+  }
+
+  private static HelperRegistry discover() {
+    Map<String, List<MethodHandle>> helpers = new HashMap<>();
+    Set<Class<?>> registered = new HashSet<>();
+    registered.add(HelperMethods.class);
+    register(helpers, new HelperMethods());
+    for (HelperProvider provider : ServiceLoader.load(HelperProvider.class)) {
+      // a provider also listed in META-INF/services, such as HelperMethods, is registered once
+      if (registered.add(provider.getClass())) {
+        register(helpers, provider);
+      }
+    }
+    return new HelperRegistry(helpers);
+  }
+
+  private static void register(Map<String, List<MethodHandle>> helpers, Object provider) {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    for (Method method : provider.getClass().getMethods()) {
+      HelperFunction helperFunction = method.getAnnotation(HelperFunction.class);
+      if (helperFunction == null) {
+        continue;
+      }
+      String name = helperFunction.value().isEmpty() ? method.getName() : helperFunction.value();
+      try {
+        MethodHandle handle = lookup.unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) {
+          handle = handle.bindTo(provider);
+        }
+        helpers.computeIfAbsent(name, key -> new ArrayList<>()).add(handle);
+      } catch (IllegalAccessException e) {
+        throw InternalErrorException.builder().internalError().cause(e)
+            .detail("Exception occurred while registering helper method " + name).build();
+      }
+    }
+  }
+
+  private static class Holder {
+    private static final HelperRegistry INSTANCE = discover();
+  }
+
+  /**
+   * A placeholder expression bound to its helper and arguments.
+   */
+  public static class HelperInvocation {
+
+    private final String expression;
+    private final MethodHandle handle;
+    private final String error;
+
+    HelperInvocation(String expression, MethodHandle handle, String error) {
+      this.expression = expression;
+      this.handle = handle;
+      this.error = error;
+    }
+
+    /**
+     * function to run the helper.
+     */
+    public String invoke() {
+      if (handle == null) {
+        throw InternalErrorException.builder().internalError().detail(error).build();
+      }
+      try {
+        return String.valueOf((Object) handle.invokeExact());
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw InternalErrorException.builder().internalError().cause(e)
+            .detail("Exception occurred while executing helper method " + expression).build();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Writes a JUnit XML report. The testcase elements are streamed to a part file while the run goes
+ * on, the report is assembled when the sink is closed, once the totals of the testsuite element
+ * are known. The number of results the reporter dropped is a "dropped" property of the testsuite.
+ */
+public class JUnitXmlResultSink implements ResultSink {
+
+  private final Path path;
+  private final Path partPath;
+  private final String suiteName;
+  private final ChannelOutputStream part;
+  private final long startMillis = System.currentTimeMillis();
+  private long tests;
+  private long failures;
+  private long skipped;
+  private long totalNanos;
+  private long dropped;
+
+  /**
+   * Initialize the sink, an existing file is replaced.
+   *
+   * @param path path
+   * @param suiteName name of the testsuite element
+   */
+  public JUnitXmlResultSink(Path path, String suiteName) throws IOException {
+    this.path = path;
+    this.partPath = Paths.get(path + ".part");
+    this.suiteName = suiteName;
+    this.part = new ChannelOutputStream(partPath);
+  }
+
+  @Override
+  public void write(TestResult result) throws IOException {
+    tests++;
+    totalNanos += result.getDurationNanos();
+    StringBuilder testCase = new StringBuilder(256).append("  <testcase name=\"");
+    escape(testCase, result.getTestName()).append("\" classname=\"");
+    escape(testCase, result.getMethod() + " " + result.getUrl()).append("\" time=\"")
+        .append(seconds(result.getDurationNanos())).append('"');
+    if (result.isSkipped()) {
+      skipped++;
+      testCase.append(">\n    <skipped/>\n  </testcase>\n");
+    } else if (result.isPassed()) {
+      testCase.append("/>\n");
+    } else {
+      failures++;
+      Throwable failure = result.getFailure();
+      testCase.append(">\n    <failure message=\"");
+      escape(testCase, String.valueOf(failure.getMessage())).append("\" type=\"");
+      escape(testCase, failure.getClass().getName()).append("\">");
+      for (AssertionResult assertion : result.getAssertions()) {
+        if (!assertion.isPassed()) {
+          escape(testCase, assertion.getType() + " " + assertion.getName() + ": expected " + assertion.getExpected()
+              + ", actual " + assertion.getActual()).append('\n');
+        }
+      }
+      testCase.append("</failure>\n  </testcase>\n");
+    }
+    part.write(testCase.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void writeDropped(long dropped) {
+    this.dropped = dropped;
+  }
+
+  @Override
+  public void close() throws IOException {
+    part.flush();
+    try (ChannelOutputStream report = new ChannelOutputStream(path)) {
+      StringBuilder header = new StringBuilder(256)
+          .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"");
+      escape(header, suiteName).append("\" tests=\"").append(tests).append("\" failures=\"").append(failures)
+          .append("\" errors=\"0\" skipped=\"").append(skipped)
+          .append("\" time=\"").append(seconds(totalNanos)).append("\" timestamp=\"")
+          .append(Instant.ofEpochMilli(startMillis)).append("\">\n  <properties>\n")
+          .append("    <property name=\"dropped\" value=\"").append(dropped).append("\"/>\n  </properties>\n");
+      report.write(header.toString().getBytes(StandardCharsets.UTF_8));
+      report.flush();
+      long size = part.getChannel().size();
+      for (long position = 0; position < size;) {
+        position += part.getChannel().transferTo(position, size - position, report.getChannel());
+      }
+      report.write("</testsuite>\n".getBytes(StandardCharsets.UTF_8));
+    } finally {
+      part.close();
+      Files.deleteIfExists(partPath);
+    }
+  }
+
+  private static String seconds(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e9);
+  }
+
+  private static StringBuilder escape(StringBuilder xml, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+      case '<':
+        xml.append("&lt;");
+        break;
+      case '>':
+        xml.append("&gt;");
+        break;
+      case '&':
+        xml.append("&amp;");
+        break;
+      case '"':
+        xml.append("&quot;");
+        break;
+      default:
+        if (c < 0x20 && c != '\n' && c != '\r' && c != '\t') {
+          xml.append('?');
+        } else {
+          xml.append(c);
+        }
+      }
+    }
+    return xml;
+  }
+
+}
@@ -0,0 +1,63 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.JsonPath;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of compiled JsonPath expressions, so each expression of a suite is compiled once.
+ */
+public class JsonPaths {
+
+  private static final int CACHE_SIZE = 8192;
+  private static final Map<String, JsonPath> CACHE = new ConcurrentHashMap<>();
+
+  private JsonPaths() {
+  }
+
+  /**
+   * function to get the compiled form of a JsonPath expression.
+   *
+   * @param path path
+   */
+  public static JsonPath compile(String path) {
+    JsonPath compiled = CACHE.get(path);
+    if (compiled == null) {
+      compiled = JsonPath.compile(path);
+      if (CACHE.size() < CACHE_SIZE) {
+        CACHE.putIfAbsent(path, compiled);
+      }
+    }
+    return compiled;
+  }
+
+  /**
+   * function to turn a value read through the JsonNode configuration into a plain java value.
+   * Numbers are returned as their plain text, so 10.50 is not read back as 10.5. Containers are returned as they are.
+   *
+   * @param value value
+   */
+  public static Object unwrap(Object value) {
+    if (!(value instanceof JsonNode)) {
+      return value;
+    }
+    JsonNode node = (JsonNode) value;
+    if (node.isNull() || node.isMissingNode()) {
+      return null;
+    }
+    if (node.isTextual()) {
+      return node.textValue();
+    }
+    if (node.isFloatingPointNumber()) {
+      return node.decimalValue().toPlainString();
+    }
+    if (node.isNumber()) {
+      return node.asText();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    return node;
+  }
+
+}
@@ -0,0 +1,90 @@
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes one json line per test case, its assertions nested.
+ */
+public class JsonlResultSink implements ResultSink {
+
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private final ChannelOutputStream output;
+  private final JsonGenerator generator;
+
+  /**
+   * Initialize the sink, an existing file is replaced.
+   *
+   * @param path path
+   */
+  public JsonlResultSink(Path path) throws IOException {
+    this.output = new ChannelOutputStream(path);
+    this.generator = FACTORY.createGenerator(output, JsonEncoding.UTF8);
+    this.generator.setRootValueSeparator(null);
+    this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+  }
+
+  @Override
+  public void write(TestResult result) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("testName", result.getTestName());
+    generator.writeStringField("method", result.getMethod());
+    generator.writeStringField("url", result.getUrl());
+    generator.writeBooleanField("passed", result.isPassed());
+    if (result.isSkipped()) {
+      generator.writeBooleanField("skipped", true);
+    }
+    generator.writeNumberField("startMillis", result.getStartMillis());
+    generator.writeNumberField("durationMicros", result.getDurationNanos() / 1000);
+    writeFailure(result.getFailure());
+    generator.writeArrayFieldStart("assertions");
+    for (AssertionResult assertion : result.getAssertions()) {
+      generator.writeStartObject();
+      generator.writeStringField("type", assertion.getType());
+      generator.writeStringField("name", assertion.getName());
+      writeValue("expected", assertion.getExpected());
+      writeValue("actual", assertion.getActual());
+      generator.writeBooleanField("passed", assertion.isPassed());
+      generator.writeNumberField("durationMicros", assertion.getDurationNanos() / 1000);
+      writeFailure(assertion.getFailure());
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.flush();
+    output.write('\n');
+  }
+
+  /**
+   * The count is written as a last {"dropped": n} line, which has no testName.
+   */
+  @Override
+  public void writeDropped(long dropped) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("dropped", dropped);
+    generator.writeEndObject();
+    generator.flush();
+    output.write('\n');
+  }
+
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+
+  private void writeValue(String field, Object value) throws IOException {
+    if (value != null) {
+      generator.writeStringField(field, String.valueOf(value));
+    }
+  }
+
+  private void writeFailure(Throwable failure) throws IOException {
+    if (failure != null) {
+      generator.writeStringField("failure", failure.getClass().getName() + ": " + failure.getMessage());
+    }
+  }
+
+}
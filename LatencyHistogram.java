@@ -0,0 +1,110 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in the style of HdrHistogram. Values are counted in log-linear
+ * buckets of 128 sub-buckets each, which keeps every recorded value within 1% of its bucket,
+ * with a fixed footprint whatever the number of samples.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong totalCount = new AtomicLong();
+  private final AtomicLong totalValue = new AtomicLong();
+  private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong maxValue = new AtomicLong();
+
+  /**
+   * function to record a value.
+   *
+   * @param value value, negative values are recorded as 0.
+   */
+  public void record(long value) {
+    long recorded = Math.max(0, value);
+    counts.incrementAndGet(index(recorded));
+    totalCount.incrementAndGet();
+    totalValue.addAndGet(recorded);
+    minValue.accumulateAndGet(recorded, Math::min);
+    maxValue.accumulateAndGet(recorded, Math::max);
+  }
+
+  /**
+   * function to add the values of another histogram.
+   *
+   * @param other other
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      long count = other.counts.get(i);
+      if (count > 0) {
+        counts.addAndGet(i, count);
+      }
+    }
+    totalCount.addAndGet(other.totalCount.get());
+    totalValue.addAndGet(other.totalValue.get());
+    minValue.accumulateAndGet(other.minValue.get(), Math::min);
+    maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+  }
+
+  public long getCount() {
+    return totalCount.get();
+  }
+
+  public long getMin() {
+    return getCount() == 0 ? 0 : minValue.get();
+  }
+
+  public long getMax() {
+    return maxValue.get();
+  }
+
+  public double getMean() {
+    long count = getCount();
+    return count == 0 ? 0 : (double) totalValue.get() / count;
+  }
+
+  /**
+   * function to get the value at a percentile, the highest value of its bucket as HdrHistogram
+   * reports it, never above the largest recorded value.
+   *
+   * @param percentile percentile, such as 99.9
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = getCount();
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestValue(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  private static int index(long value) {
+    if (value < LINEAR_LIMIT) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - 1 - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+  }
+
+  private static long highestValue(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+}
@@ -0,0 +1,72 @@
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Workload of a load run. The open model starts test cases at targetRps whatever the response
+ * times, the closed model keeps concurrency test cases in flight, paced at targetRps when it is
+ * set. The rate, or the number of active workers, grows linearly during the ramp-up.
+ */
+public class LoadProfile {
+
+  public static final String OPEN = "open";
+  public static final String CLOSED = "closed";
+
+  private String model;
+  private double targetRps;
+  private int concurrency;
+  private long rampUpSeconds;
+  private long durationSeconds;
+  private List<String> testCases;
+
+  /**
+   * parameterized constructor.
+   */
+  @JsonCreator
+  public LoadProfile(@JsonProperty("model") String model,
+      @JsonProperty("targetRps") double targetRps,
+      @JsonProperty("concurrency") int concurrency,
+      @JsonProperty("rampUpSeconds") long rampUpSeconds,
+      @JsonProperty("durationSeconds") long durationSeconds,
+      @JsonProperty("testCases") List<String> testCases) {
+    this.model = model == null ? OPEN : model;
+    this.targetRps = targetRps;
+    this.concurrency = concurrency;
+    this.rampUpSeconds = rampUpSeconds;
+    this.durationSeconds = durationSeconds;
+    this.testCases = testCases;
+  }
+
+  public String getModel() {
+    return model;
+  }
+
+  public boolean isOpen() {
+    return OPEN.equalsIgnoreCase(model);
+  }
+
+  public double getTargetRps() {
+    return targetRps;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public long getRampUpSeconds() {
+    return rampUpSeconds;
+  }
+
+  public long getDurationSeconds() {
+    return durationSeconds;
+  }
+
+  /**
+   * function to get the test cases of the workload, null for every test case of the suite.
+   */
+  public List<String> getTestCases() {
+    return testCases;
+  }
+
+}
@@ -0,0 +1,69 @@
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency percentiles and throughput of a load run, per test case and per url.
+ */
+public class LoadReport {
+
+  private static final String ROW_FORMAT = "%-48s %9s %8s %10s %10s %10s %10s %10s%n";
+
+  private final Map<String, LoadStats> byTest;
+  private final Map<String, LoadStats> byUrl;
+  private final long elapsedNanos;
+
+  /**
+   * parameterized constructor.
+   */
+  public LoadReport(Map<String, LoadStats> byTest, Map<String, LoadStats> byUrl, long elapsedNanos) {
+    this.byTest = Collections.unmodifiableMap(byTest);
+    this.byUrl = Collections.unmodifiableMap(byUrl);
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public Map<String, LoadStats> getByTest() {
+    return byTest;
+  }
+
+  public Map<String, LoadStats> getByUrl() {
+    return byUrl;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * function to format the report as text tables, latencies in milliseconds.
+   */
+  public String format() {
+    StringBuilder report = new StringBuilder();
+    appendTable(report, "test case", byTest);
+    report.append(System.lineSeparator());
+    appendTable(report, "url", byUrl);
+    return report.toString();
+  }
+
+  @Override
+  public String toString() {
+    return format();
+  }
+
+  private void appendTable(StringBuilder report, String title, Map<String, LoadStats> stats) {
+    report.append(String.format(Locale.ROOT, ROW_FORMAT, title, "count", "errors", "rps", "p50", "p99", "p99.9",
+        "max"));
+    for (LoadStats stat : stats.values()) {
+      LatencyHistogram latency = stat.getLatency();
+      report.append(String.format(Locale.ROOT, ROW_FORMAT, stat.getName(), stat.getCount(), stat.getFailures(),
+          String.format(Locale.ROOT, "%.1f", stat.getThroughput(elapsedNanos)),
+          millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+          millis(latency.getValueAtPercentile(99.9)), millis(latency.getMax())));
+    }
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+  }
+
+}
@@ -0,0 +1,151 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the test cases of a parsed suite as a workload. Test cases are picked round-robin and
+ * run on virtual threads. Every call is scheduled at an intended start time and its latency is
+ * measured from that time, not from when it actually started, so a stalled service shows up in
+ * the percentiles instead of silently lowering the request rate (coordinated omission).
+ */
+public class LoadRunner {
+
+  private static final long DRAIN_TIMEOUT_SECONDS = 60;
+  private static final int MAX_URLS = 2048;
+  private static final String OTHER_URLS = "other";
+
+  private final TestCaseExecutor testCaseExecutor;
+  private final LoadProfile profile;
+  private final List<String> testNames;
+  private final Map<String, LoadStats> byTest = new ConcurrentSkipListMap<>();
+  private final Map<String, LoadStats> byUrl = new ConcurrentSkipListMap<>();
+  private final AtomicInteger urlCount = new AtomicInteger();
+
+  /**
+   * Initialize the runner.
+   *
+   * @param testCaseExecutor executor with the suite parsed
+   * @param profile profile
+   */
+  public LoadRunner(TestCaseExecutor testCaseExecutor, LoadProfile profile) {
+    this.testCaseExecutor = testCaseExecutor;
+    this.profile = profile;
+    this.testNames = new ArrayList<>(
+        profile.getTestCases() != null ? profile.getTestCases() : testCaseExecutor.getTestNames());
+    if (testNames.isEmpty()) {
+      throw InternalErrorException.builder().internalError().detail("Load profile has no test cases").build();
+    }
+  }
+
+  /**
+   * function to run the workload for the duration of the profile and wait for the calls in flight.
+   */
+  public LoadReport run() {
+    ExecutorService executorService = ExecutorMode.VIRTUAL_THREADS
+        .newExecutor(Math.max(profile.getConcurrency(), TestDataConstants.RUNNER_PARALLELISM));
+    long start = System.nanoTime();
+    try {
+      if (profile.isOpen()) {
+        runOpen(executorService, start);
+      } else {
+        runClosed(executorService, start);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+    try {
+      executorService.awaitTermination(profile.getDurationSeconds() + DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return new LoadReport(byTest, byUrl, System.nanoTime() - start);
+  }
+
+  private void runOpen(ExecutorService executorService, long start) {
+    if (profile.getTargetRps() <= 0) {
+      throw InternalErrorException.builder().internalError().detail("Open load profile needs a targetRps").build();
+    }
+    long end = start + TimeUnit.SECONDS.toNanos(profile.getDurationSeconds());
+    for (long call = 0;; call++) {
+      long intendedStart = start + arrivalOffset(call, profile.getTargetRps());
+      if (intendedStart >= end) {
+        return;
+      }
+      waitUntil(intendedStart);
+      String testName = testNames.get((int) (call % testNames.size()));
+      executorService.execute(() -> runTimed(testName, intendedStart));
+    }
+  }
+
+  private void runClosed(ExecutorService executorService, long start) {
+    if (profile.getConcurrency() <= 0) {
+      throw InternalErrorException.builder().internalError().detail("Closed load profile needs a concurrency")
+          .build();
+    }
+    long end = start + TimeUnit.SECONDS.toNanos(profile.getDurationSeconds());
+    long rampUp = TimeUnit.SECONDS.toNanos(profile.getRampUpSeconds());
+    long interval = profile.getTargetRps() > 0 ? (long) (1e9 * profile.getConcurrency() / profile.getTargetRps()) : 0;
+    for (int worker = 0; worker < profile.getConcurrency(); worker++) {
+      long workerStart = start + rampUp * worker / profile.getConcurrency();
+      int offset = worker;
+      executorService.execute(() -> {
+        long intendedStart = workerStart;
+        for (int call = offset; intendedStart < end; call++) {
+          waitUntil(intendedStart);
+          // without a target rate there is no schedule to fall behind, latency starts with the call
+          long actualStart = interval > 0 ? intendedStart : System.nanoTime();
+          runTimed(testNames.get(call % testNames.size()), actualStart);
+          intendedStart = interval > 0 ? intendedStart + interval : System.nanoTime();
+        }
+      });
+    }
+  }
+
+  /**
+   * offset of a call from the start of the run, the rate growing linearly to the target during
+   * the ramp-up and staying at the target afterwards.
+   */
+  private long arrivalOffset(long call, double targetRps) {
+    double rampUp = profile.getRampUpSeconds();
+    double rampUpCalls = targetRps * rampUp / 2;
+    double seconds = call < rampUpCalls ? Math.sqrt(2 * call * rampUp / targetRps)
+        : rampUp + (call - rampUpCalls) / targetRps;
+    return (long) (seconds * 1e9);
+  }
+
+  private void runTimed(String testName, long intendedStart) {
+    boolean failed = false;
+    try {
+      testCaseExecutor.runTestCase(testName);
+    } catch (RuntimeException | Error e) {
+      failed = true;
+    }
+    long latency = System.nanoTime() - intendedStart;
+    byTest.computeIfAbsent(testName, LoadStats::new).record(latency, failed);
+    TestCaseDto testCase = testCaseExecutor.getTestCase(testName);
+    if (testCase != null) {
+      String url = testCase.getMethod() + " " + UriTemplate.pathTemplate(testCase.getUrl());
+      LoadStats stats = byUrl.get(url);
+      if (stats == null) {
+        // urls are keyed by template, past MAX_URLS of them the calls are counted under "other"
+        stats = byUrl.computeIfAbsent(urlCount.getAndIncrement() < MAX_URLS ? url : OTHER_URLS, LoadStats::new);
+      }
+      stats.record(latency, failed);
+    }
+  }
+
+  private static void waitUntil(long deadline) {
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+
+}
@@ -0,0 +1,54 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and outcome counts of the calls of one test case or one url during a load run.
+ */
+public class LoadStats {
+
+  private final String name;
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final AtomicLong failures = new AtomicLong();
+
+  public LoadStats(String name) {
+    this.name = name;
+  }
+
+  /**
+   * function to record a call.
+   *
+   * @param latencyNanos latency, measured from the intended start of the call.
+   * @param failed failed
+   */
+  public void record(long latencyNanos, boolean failed) {
+    latency.record(latencyNanos);
+    if (failed) {
+      failures.incrementAndGet();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  public long getCount() {
+    return latency.getCount();
+  }
+
+  public long getFailures() {
+    return failures.get();
+  }
+
+  /**
+   * function to get the throughput over the run.
+   *
+   * @param elapsedNanos elapsed time of the run
+   */
+  public double getThroughput(long elapsedNanos) {
+    return elapsedNanos <= 0 ? 0 : getCount() * 1e9 / elapsedNanos;
+  }
+
+}
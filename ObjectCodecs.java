@@ -0,0 +1,67 @@
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the readers and writers of {@link TestDataConstants#MAPPER} by type, so the
+ * serializers of the classMap types are looked up once instead of on every response.
+ */
+public class ObjectCodecs {
+
+  private static final int CACHE_SIZE = 1024;
+  private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+  private ObjectCodecs() {
+  }
+
+  /**
+   * function to build the readers and writers of the given types up front.
+   *
+   * @param types types
+   */
+  public static void precompile(Collection<Class<?>> types) {
+    for (Class<?> type : types) {
+      if (type != null) {
+        reader(type);
+        writer(type);
+      }
+    }
+  }
+
+  /**
+   * function to get the reader of a type.
+   *
+   * @param type type
+   */
+  public static ObjectReader reader(Class<?> type) {
+    ObjectReader reader = READERS.get(type);
+    if (reader == null) {
+      reader = TestDataConstants.MAPPER.readerFor(type);
+      if (READERS.size() < CACHE_SIZE) {
+        READERS.putIfAbsent(type, reader);
+      }
+    }
+    return reader;
+  }
+
+  /**
+   * function to get the writer of a type.
+   *
+   * @param type type
+   */
+  public static ObjectWriter writer(Class<?> type) {
+    ObjectWriter writer = WRITERS.get(type);
+    if (writer == null) {
+      writer = TestDataConstants.MAPPER.writerFor(type);
+      if (WRITERS.size() < CACHE_SIZE) {
+        WRITERS.putIfAbsent(type, writer);
+      }
+    }
+    return writer;
+  }
+
+}
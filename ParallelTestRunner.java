@@ -0,0 +1,109 @@
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Run the test cases of a parsed suite concurrently.
+ */
+public class ParallelTestRunner {
+
+  private final TestCaseExecutor testCaseExecutor;
+  private final ExecutorMode executorMode;
+  private final int parallelism;
+
+  /**
+   * Initialize the runner with the executor configured in {@link TestDataConstants}.
+   *
+   * @param testCaseExecutor testCaseExecutor
+   */
+  public ParallelTestRunner(TestCaseExecutor testCaseExecutor) {
+    this(testCaseExecutor, ExecutorMode.valueOf(TestDataConstants.RUNNER_MODE),
+        TestDataConstants.RUNNER_PARALLELISM);
+  }
+
+  /**
+   * Initialize the runner.
+   *
+   * @param testCaseExecutor testCaseExecutor
+   * @param executorMode executorMode
+   * @param parallelism parallelism
+   */
+  public ParallelTestRunner(TestCaseExecutor testCaseExecutor, ExecutorMode executorMode, int parallelism) {
+    this.testCaseExecutor = testCaseExecutor;
+    this.executorMode = executorMode;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * function to run every test case of the parsed suite, or only those that changed since they last
+   * passed when jsonTest.incremental is set, see {@link TestCaseExecutor#selectTests}. When
+   * jsonTest.shard.count is above 1 only the shard jsonTest.shard.index of the suite runs, see
+   * {@link ShardPlanner}, and its results are written to jsonTest.shard.results for
+   * {@link ShardCoordinator} to merge.
+   *
+   * @return failures by test name, empty when every test passed.
+   */
+  public Map<String, Throwable> runAll() {
+    Collection<String> testNames = testCaseExecutor.getTestNames();
+    if (TestDataConstants.SHARD_COUNT > 1) {
+      testNames = ShardPlanner.configuredShard(testCaseExecutor::getTestCase, testNames);
+    }
+    ResultReporter previous = testCaseExecutor.getResultReporter();
+    ResultReporter shardReporter = Objects.isNull(TestDataConstants.SHARD_RESULTS) ? null
+        : ResultReporter.to(Paths.get(TestDataConstants.SHARD_RESULTS), null,
+            "shard-" + TestDataConstants.SHARD_INDEX);
+    if (Objects.nonNull(shardReporter)) {
+      testCaseExecutor.setResultReporter(shardReporter);
+    }
+    try {
+      List<String> selected = testCaseExecutor.selectTests(testNames);
+      testCaseExecutor.startFixturePools(selected);
+      return runTestCases(selected);
+    } finally {
+      testCaseExecutor.closeFixturePools();
+      testCaseExecutor.saveTestCache();
+      if (Objects.nonNull(shardReporter)) {
+        testCaseExecutor.setResultReporter(previous);
+        shardReporter.close();
+      }
+    }
+  }
+
+  /**
+   * function to run the given test cases concurrently.
+   *
+   * @param testNames testNames
+   * @return failures by test name, empty when every test passed.
+   */
+  public Map<String, Throwable> runTestCases(Collection<String> testNames) {
+    Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    ExecutorService executorService = executorMode.newExecutor(parallelism);
+    try {
+      List<CompletableFuture<?>> futures = new ArrayList<>(testNames.size());
+      for (String testName : testNames) {
+        futures.add(testCaseExecutor.runTestCaseAsync(testName, executorService).handle((result, e) -> {
+          if (e != null) {
+            failures.put(testName, unwrap(e));
+          }
+          return null;
+        }));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    } finally {
+      executorService.shutdown();
+    }
+    return failures;
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+  }
+
+}
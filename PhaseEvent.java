@@ -0,0 +1,34 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one phase of a test case, recorded when a recording enables
+ * jsonTest.Phase.
+ */
+@Name("jsonTest.Phase")
+@Label("Test Case Phase")
+@Category("jsonTest")
+@Description("Time spent in one phase of a test case")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+  @Label("Phase")
+  String phase;
+
+  @Label("Test Name")
+  String testName;
+
+  @Label("Method")
+  String method;
+
+  @Label("Url")
+  String url;
+
+  @Label("Failed")
+  boolean failed;
+
+}
@@ -0,0 +1,258 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Timers of the phases of the test cases, tagged with the test name, method and url template. Every
+ * timed phase also emits a {@link PhaseEvent} when flight recording is on. Recording a phase costs
+ * two clock reads and a few uncontended adds. Past MAX_TAGS distinct tags, phases are recorded
+ * under one "other" tag so the timers stay bounded.
+ */
+public class PhaseMetrics {
+
+  /**
+   * Phases of a test case.
+   */
+  public enum Phase {
+    FILE_READ, TEMPLATING, SERIALIZATION, HTTP, RESPONSE_PARSE, ASSERTIONS, DB_ASSERTIONS, POST_PROCESSING
+  }
+
+  private static final int MAX_TAGS = 2048;
+  private static final Tags OTHER = new Tags("other", null, null);
+  private static final String ROW_FORMAT = "%-40s %-16s %9s %12s %10s %10s %7s%n";
+
+  private final Map<Tags, Map<Phase, Timer>> timers = new ConcurrentHashMap<>();
+
+  /**
+   * function to create the tags of a test case.
+   *
+   * @param testName testName
+   * @param method method
+   * @param url url, tagged by its template so ids in the path do not create new timers.
+   */
+  public static Tags tags(String testName, String method, String url) {
+    return new Tags(testName, method, UriTemplate.pathTemplate(url));
+  }
+
+  /**
+   * function to time a phase.
+   *
+   * @param phase phase
+   * @param tags tags
+   * @param step step
+   */
+  public <T> T time(Phase phase, Tags tags, Supplier<T> step) {
+    PhaseEvent event = new PhaseEvent();
+    event.begin();
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      T result = step.get();
+      failed = false;
+      return result;
+    } finally {
+      timer(tags, phase).record(System.nanoTime() - start);
+      if (event.shouldCommit()) {
+        event.phase = phase.name();
+        event.testName = tags.testName;
+        event.method = tags.method;
+        event.url = tags.url;
+        event.failed = failed;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * function to time a phase without a result.
+   *
+   * @param phase phase
+   * @param tags tags
+   * @param step step
+   */
+  public void time(Phase phase, Tags tags, Runnable step) {
+    time(phase, tags, () -> {
+      step.run();
+      return null;
+    });
+  }
+
+  /**
+   * function to get the timers of a test case by phase.
+   *
+   * @param tags tags
+   */
+  public Map<Phase, Timer> getTimers(Tags tags) {
+    return Collections.unmodifiableMap(timers.getOrDefault(tags, Collections.emptyMap()));
+  }
+
+  public Map<Tags, Map<Phase, Timer>> getTimers() {
+    return Collections.unmodifiableMap(timers);
+  }
+
+  /**
+   * function to get the time of every phase summed over all test cases.
+   */
+  public Map<Phase, Timer> getPhaseTotals() {
+    Map<Phase, Timer> totals = new EnumMap<>(Phase.class);
+    for (Map<Phase, Timer> phases : timers.values()) {
+      for (Map.Entry<Phase, Timer> timer : phases.entrySet()) {
+        totals.computeIfAbsent(timer.getKey(), phase -> new Timer()).add(timer.getValue());
+      }
+    }
+    return totals;
+  }
+
+  /**
+   * function to format the end of run breakdown, per phase and then per test case, times in
+   * milliseconds and shares of the total time of the run.
+   */
+  public String report() {
+    Map<Phase, Timer> totals = getPhaseTotals();
+    long total = 0;
+    for (Timer timer : totals.values()) {
+      total += timer.getTotalNanos();
+    }
+    StringBuilder report = new StringBuilder();
+    report.append(String.format(Locale.ROOT, ROW_FORMAT, "test case", "phase", "count", "total", "mean", "max",
+        "share"));
+    for (Map.Entry<Phase, Timer> timer : totals.entrySet()) {
+      appendRow(report, "all", timer.getKey(), timer.getValue(), total);
+    }
+    List<Tags> tests = new ArrayList<>(timers.keySet());
+    tests.sort((left, right) -> String.valueOf(left.testName).compareTo(String.valueOf(right.testName)));
+    for (Tags tags : tests) {
+      for (Map.Entry<Phase, Timer> timer : new EnumMap<>(timers.get(tags)).entrySet()) {
+        appendRow(report, tags.testName, timer.getKey(), timer.getValue(), total);
+      }
+    }
+    return report.toString();
+  }
+
+  private static void appendRow(StringBuilder report, String name, Phase phase, Timer timer, long total) {
+    report.append(String.format(Locale.ROOT, ROW_FORMAT, name, phase, timer.getCount(),
+        millis(timer.getTotalNanos()), millis((long) timer.getMeanNanos()), millis(timer.getMaxNanos()),
+        String.format(Locale.ROOT, "%.1f%%", total == 0 ? 0 : 100.0 * timer.getTotalNanos() / total)));
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+  }
+
+  private Timer timer(Tags tags, Phase phase) {
+    Map<Phase, Timer> phases = timers.get(tags);
+    if (phases == null) {
+      phases = timers.computeIfAbsent(timers.size() < MAX_TAGS ? tags : OTHER, key -> new ConcurrentHashMap<>());
+    }
+    Timer timer = phases.get(phase);
+    return timer != null ? timer : phases.computeIfAbsent(phase, key -> new Timer());
+  }
+
+  /**
+   * Test name, method and url of a measurement.
+   */
+  public static final class Tags {
+
+    private final String testName;
+    private final String method;
+    private final String url;
+    private final int hash;
+
+    private Tags(String testName, String method, String url) {
+      this.testName = testName;
+      this.method = method;
+      this.url = url;
+      this.hash = Objects.hash(testName, method, url);
+    }
+
+    public String getTestName() {
+      return testName;
+    }
+
+    public String getMethod() {
+      return method;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Tags)) {
+        return false;
+      }
+      Tags tags = (Tags) other;
+      return Objects.equals(testName, tags.testName) && Objects.equals(method, tags.method)
+          && Objects.equals(url, tags.url);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return testName + " " + method + " " + url;
+    }
+  }
+
+  /**
+   * Count, total and max time of a phase.
+   */
+  public static final class Timer {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+      if (nanos > maxNanos.get()) {
+        maxNanos.accumulateAndGet(nanos, Math::max);
+      }
+    }
+
+    void add(Timer other) {
+      count.add(other.getCount());
+      totalNanos.add(other.getTotalNanos());
+      maxNanos.accumulateAndGet(other.getMaxNanos(), Math::max);
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+      long samples = getCount();
+      return samples == 0 ? 0 : (double) getTotalNanos() / samples;
+    }
+
+    public double getTotalTime(TimeUnit unit) {
+      return getTotalNanos() / (double) unit.toNanos(1);
+    }
+  }
+
+}
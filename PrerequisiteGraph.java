@@ -0,0 +1,196 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+import com.paysafe.ss.ledger.component.dto.TestCaseDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Dependency graph of the prerequisite files of a suite. Every node is a prerequisite file reached
+ * through the same chain of files in the same scope, so tests sharing a chain run each shared step
+ * once and reuse its post-processor variables. The first step of a chain is leased from a
+ * {@link FixturePool} when its file declares a fixturePool.
+ */
+public class PrerequisiteGraph {
+
+  public static final String SUITE_SCOPE = "suite";
+  public static final String TEST_SCOPE = "test";
+
+  private final VariableContext suiteContext;
+  private final Consumer<String> stepRunner;
+  private final Function<String, TestCaseDto.FixturePoolDto> poolSpecs;
+  private final Map<String, CompletableFuture<VariableContext>> nodes = new ConcurrentHashMap<>();
+  private final Map<String, Optional<FixturePool>> pools = new ConcurrentHashMap<>();
+
+  /**
+   * Initialize the graph.
+   *
+   * @param suiteContext scope every chain starts from.
+   * @param stepRunner runs a single prerequisite file in the scope bound to the current thread.
+   */
+  public PrerequisiteGraph(VariableContext suiteContext, Consumer<String> stepRunner) {
+    this(suiteContext, stepRunner, fileName -> null);
+  }
+
+  /**
+   * Initialize the graph with fixture pools.
+   *
+   * @param suiteContext scope every chain starts from.
+   * @param stepRunner runs a single prerequisite file in the scope bound to the current thread.
+   * @param poolSpecs pool of a prerequisite file, null when the file is not poolable.
+   */
+  public PrerequisiteGraph(VariableContext suiteContext, Consumer<String> stepRunner,
+      Function<String, TestCaseDto.FixturePoolDto> poolSpecs) {
+    this.suiteContext = suiteContext;
+    this.stepRunner = stepRunner;
+    this.poolSpecs = poolSpecs;
+  }
+
+  /**
+   * function to resolve the prerequisites of a test case. Steps not started yet are scheduled on the
+   * given executor, steps already run or running are shared.
+   *
+   * @param testCase testCase
+   * @param executor executor
+   * @return scope holding the post-processor variables of the whole chain, completed exceptionally
+   *     as soon as any step of the chain fails.
+   */
+  public CompletableFuture<VariableContext> resolve(TestCaseDto testCase, Executor executor) {
+    return resolve(testCase, executor, lease -> {
+    });
+  }
+
+  /**
+   * function to resolve the prerequisites of a test case, handing the fixtures leased for the test
+   * to the caller, which releases them once the test is done.
+   *
+   * @param testCase testCase
+   * @param executor executor
+   * @param leases receives the leases of the test
+   */
+  public CompletableFuture<VariableContext> resolve(TestCaseDto testCase, Executor executor,
+      Consumer<FixturePool.Lease> leases) {
+    CompletableFuture<VariableContext> node = CompletableFuture.completedFuture(suiteContext);
+    List<String> steps = testCase.getPrerequisite();
+    if (Objects.isNull(steps)) {
+      return node;
+    }
+    String scope = Objects.toString(testCase.getPrerequisiteScope(), SUITE_SCOPE);
+    boolean shared = !TEST_SCOPE.equals(scope);
+    String key = scope;
+    for (int i = 0; i < steps.size(); i++) {
+      String fileName = steps.get(i);
+      CompletableFuture<VariableContext> parent = node;
+      FixturePool pool = i == 0 ? getPool(fileName) : null;
+      key = key + ">" + fileName;
+      if (pool == null) {
+        node = shared ? sharedNode(key, () -> runStep(fileName, parent, executor))
+            : runStep(fileName, parent, executor);
+      } else if (shared) {
+        // a suite scoped chain keeps its fixture for the whole suite
+        node = sharedNode(key, () -> pool.lease(executor).thenApply(FixturePool.Lease::getContext));
+      } else {
+        node = pool.lease(executor).thenApply(lease -> {
+          leases.accept(lease);
+          return lease.getContext();
+        });
+      }
+    }
+    return node;
+  }
+
+  /**
+   * function to start filling the pools of the first prerequisite of the given tests, before they
+   * run.
+   *
+   * @param testCases testCases
+   */
+  public void startPools(Collection<TestCaseDto> testCases) {
+    for (TestCaseDto testCase : testCases) {
+      if (Objects.nonNull(testCase) && Objects.nonNull(testCase.getPrerequisite())
+          && !testCase.getPrerequisite().isEmpty()) {
+        getPool(testCase.getPrerequisite().get(0));
+      }
+    }
+  }
+
+  /**
+   * function to get the fixture pools started so far.
+   */
+  public List<FixturePool> getPools() {
+    List<FixturePool> started = new ArrayList<>();
+    for (Optional<FixturePool> pool : pools.values()) {
+      pool.ifPresent(started::add);
+    }
+    return started;
+  }
+
+  /**
+   * function to stop the producers of every pool, the fixtures still ready are dropped.
+   */
+  public void closePools() {
+    for (FixturePool pool : getPools()) {
+      pool.close();
+    }
+    pools.clear();
+  }
+
+  private FixturePool getPool(String fileName) {
+    return pools.computeIfAbsent(fileName, file -> {
+      TestCaseDto.FixturePoolDto spec = poolSpecs.apply(file);
+      if (spec == null) {
+        return Optional.empty();
+      }
+      return Optional.of(new FixturePool(file, spec.getSize(), spec.getProducers(), spec.isReusable(), () -> {
+        VariableContext stepContext = new VariableContext(suiteContext);
+        stepContext.bind(() -> stepRunner.accept(file));
+        return stepContext;
+      }));
+    }).orElse(null);
+  }
+
+  private CompletableFuture<VariableContext> sharedNode(String key,
+      Supplier<CompletableFuture<VariableContext>> step) {
+    CompletableFuture<VariableContext> existing = nodes.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    CompletableFuture<VariableContext> created = new CompletableFuture<>();
+    existing = nodes.putIfAbsent(key, created);
+    if (existing != null) {
+      return existing;
+    }
+    step.get().whenComplete((context, e) -> {
+      if (e != null) {
+        created.completeExceptionally(e);
+      } else {
+        created.complete(context);
+      }
+    });
+    return created;
+  }
+
+  private CompletableFuture<VariableContext> runStep(String fileName, CompletableFuture<VariableContext> parent,
+      Executor executor) {
+    return parent.thenApplyAsync(parentContext -> {
+      VariableContext stepContext = new VariableContext(parentContext);
+      try {
+        stepContext.bind(() -> stepRunner.accept(fileName));
+      } catch (RuntimeException e) {
+        throw InternalErrorException.builder().internalError().cause(e)
+            .detail("Prerequisite " + fileName + " failed").build();
+      }
+      return stepContext;
+    }, executor);
+  }
+
+}
@@ -0,0 +1,336 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * On-disk store of recorded responses. Bodies are appended to bodies.dat and every response is
+ * indexed in index.jsonl under two keys: the exact method, uri and body hash, and a masked key made
+ * of the method, the url with its ids replaced by {id}, the sorted query and a hash of the
+ * normalized body. Replay serves the exact match first, so requests that differ only by an id get
+ * their own responses, and falls back to the masked key for a request of another run whose
+ * generated ids and timestamps differ. Replay reads the index once and serves bodies from the
+ * memory-mapped data file; recording keeps both files open until the store is closed.
+ */
+public class RecordingStore implements Closeable {
+
+  public static final String LIVE = "LIVE";
+  public static final String RECORD = "RECORD";
+  public static final String REPLAY = "REPLAY";
+
+  private static final String INDEX_FILE = "index.jsonl";
+  private static final String BODIES_FILE = "bodies.dat";
+  private static final String ID = "{id}";
+  private static final String UUID = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
+  private static final Pattern PATH_ID = Pattern.compile(UUID + "|[0-9]+");
+  private static final Pattern VOLATILE_VALUE =
+      Pattern.compile(UUID + "|[0-9]{4}-[0-9]{2}-[0-9]{2}T[0-9:.]+(Z|[+-][0-9:]+)?");
+
+  private final Path directory;
+  private final String mode;
+  private final Map<String, List<long[]>> index = new ConcurrentHashMap<>();
+  private final Map<String, List<long[]>> exactIndex = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> replayed = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> exactReplayed = new ConcurrentHashMap<>();
+  private ByteBuffer bodies;
+  private FileChannel bodiesChannel;
+  private FileChannel indexChannel;
+  private long bodiesSize;
+
+  private RecordingStore(Path directory, String mode) {
+    this.directory = directory;
+    this.mode = mode;
+  }
+
+  /**
+   * function to get the store configured by jsonTest.http.mode and jsonTest.http.recordings, opened
+   * once per JVM.
+   *
+   * @return the store, null in live mode.
+   */
+  public static RecordingStore configured() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * function to open a store.
+   *
+   * @param directory directory of the store
+   * @param mode RECORD, which replaces the previous recordings, or REPLAY
+   */
+  public static RecordingStore open(Path directory, String mode) {
+    if (!RECORD.equals(mode) && !REPLAY.equals(mode)) {
+      throw InternalErrorException.builder().internalError()
+          .detail("Recordings are opened in " + RECORD + " or " + REPLAY + " mode, not " + mode).build();
+    }
+    RecordingStore store = new RecordingStore(directory, mode);
+    try {
+      Files.createDirectories(directory);
+      if (store.isRecording()) {
+        store.bodiesChannel = FileChannel.open(directory.resolve(BODIES_FILE), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        store.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      }
+      store.loadIndex();
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while opening the recordings in " + directory).build();
+    }
+    return store;
+  }
+
+  public boolean isRecording() {
+    return RECORD.equals(mode);
+  }
+
+  public boolean isReplaying() {
+    return REPLAY.equals(mode);
+  }
+
+  /**
+   * function to get the recorded response of a request, matched on its exact key first and on its
+   * masked key otherwise. Requests recorded more than once are served in recording order, the last
+   * response repeating.
+   *
+   * @param method method
+   * @param uri path and query of the request
+   * @param body body, may be null.
+   * @return the response, null when the request was not recorded.
+   */
+  public ApiResponse replay(String method, String uri, byte[] body) {
+    String key = exactKey(method, uri, body);
+    List<long[]> responses = exactIndex.get(key);
+    Map<String, AtomicInteger> calls = exactReplayed;
+    if (responses == null) {
+      key = key(method, uri, body);
+      responses = index.get(key);
+      calls = replayed;
+    }
+    if (responses == null) {
+      return null;
+    }
+    int call = calls.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+    long[] response = responses.get(Math.min(call, responses.size() - 1));
+    byte[] content = new byte[(int) response[2]];
+    ByteBuffer slice = bodies.duplicate();
+    slice.position((int) response[1]);
+    slice.get(content);
+    return new ApiResponse((int) response[0], content);
+  }
+
+  /**
+   * function to record the response of a request.
+   *
+   * @param method method
+   * @param uri path and query of the request
+   * @param body body, may be null.
+   * @param response response
+   */
+  public synchronized void record(String method, String uri, byte[] body, ApiResponse response) {
+    if (!isRecording()) {
+      throw InternalErrorException.builder().internalError()
+          .detail("Recordings in " + directory + " are opened in " + mode + " mode").build();
+    }
+    String key = key(method, uri, body);
+    String exactKey = exactKey(method, uri, body);
+    byte[] content = response.getBody() == null ? new byte[0] : response.getBody();
+    try {
+      long offset = bodiesSize;
+      writeFully(bodiesChannel, ByteBuffer.wrap(content));
+      bodiesSize += content.length;
+      ObjectNode entry = TestDataConstants.MAPPER.createObjectNode();
+      entry.put("key", key).put("exact", exactKey).put("status", response.getStatus()).put("offset", offset)
+          .put("length", content.length);
+      writeFully(indexChannel, ByteBuffer.wrap(
+          (TestDataConstants.MAPPER.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8)));
+      long[] recorded = new long[] { response.getStatus(), offset, content.length };
+      index.computeIfAbsent(key, k -> new ArrayList<>()).add(recorded);
+      exactIndex.computeIfAbsent(exactKey, k -> new ArrayList<>()).add(recorded);
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while recording " + method + " " + uri).build();
+    }
+  }
+
+  /**
+   * function to close the recording files.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    try (FileChannel data = bodiesChannel; FileChannel indexData = indexChannel) {
+      bodiesChannel = null;
+      indexChannel = null;
+    }
+  }
+
+  /**
+   * function to build the exact key of a request, its method, uri and a hash of the body as sent.
+   *
+   * @param method method
+   * @param uri path and query of the request
+   * @param body body, may be null.
+   */
+  public static String exactKey(String method, String uri, byte[] body) {
+    StringBuilder key = new StringBuilder(method).append(' ').append(uri);
+    if (body != null && body.length > 0) {
+      key.append(' ').append(hash(body));
+    }
+    return key.toString();
+  }
+
+  /**
+   * function to build the masked key of a request.
+   *
+   * @param method method
+   * @param uri path and query of the request
+   * @param body body, may be null.
+   */
+  public static String key(String method, String uri, byte[] body) {
+    int queryStart = uri.indexOf('?');
+    String path = queryStart < 0 ? uri : uri.substring(0, queryStart);
+    String[] segments = path.split("/", -1);
+    for (int i = 0; i < segments.length; i++) {
+      if (PATH_ID.matcher(segments[i]).matches()) {
+        segments[i] = ID;
+      }
+    }
+    StringBuilder key = new StringBuilder(method).append(' ').append(String.join("/", segments));
+    if (queryStart >= 0) {
+      String[] params = uri.substring(queryStart + 1).split("&");
+      for (int i = 0; i < params.length; i++) {
+        int equals = params[i].indexOf('=');
+        if (equals > 0 && VOLATILE_VALUE.matcher(params[i].substring(equals + 1)).matches()) {
+          params[i] = params[i].substring(0, equals + 1) + ID;
+        }
+      }
+      Arrays.sort(params);
+      key.append('?').append(String.join("&", params));
+    }
+    if (body != null && body.length > 0) {
+      key.append(' ').append(bodyHash(body));
+    }
+    return key.toString();
+  }
+
+  private static String bodyHash(byte[] body) {
+    byte[] normalized;
+    try {
+      normalized = TestDataConstants.MAPPER.writeValueAsBytes(normalize(TestDataConstants.MAPPER.readTree(body)));
+    } catch (IOException e) {
+      normalized = body;
+    }
+    return hash(normalized);
+  }
+
+  private static String hash(byte[] content) {
+    try {
+      StringBuilder hash = new StringBuilder(32);
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+      for (int i = 0; i < 16; i++) {
+        hash.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+      }
+      return hash.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * sorts the fields of objects and replaces ids and timestamps, which change from run to run.
+   */
+  private static JsonNode normalize(JsonNode node) {
+    if (node.isObject()) {
+      Map<String, JsonNode> fields = new TreeMap<>();
+      Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+      while (iterator.hasNext()) {
+        Map.Entry<String, JsonNode> field = iterator.next();
+        fields.put(field.getKey(), normalize(field.getValue()));
+      }
+      ObjectNode sorted = TestDataConstants.MAPPER.createObjectNode();
+      sorted.setAll(fields);
+      return sorted;
+    }
+    if (node.isArray()) {
+      List<JsonNode> elements = new ArrayList<>();
+      node.elements().forEachRemaining(element -> elements.add(normalize(element)));
+      return TestDataConstants.MAPPER.createArrayNode().addAll(elements);
+    }
+    if (node.isTextual() && VOLATILE_VALUE.matcher(node.textValue()).matches()) {
+      return TestDataConstants.MAPPER.getNodeFactory().textNode(ID);
+    }
+    return node;
+  }
+
+  private void loadIndex() throws IOException {
+    Path indexFile = directory.resolve(INDEX_FILE);
+    Path bodiesFile = directory.resolve(BODIES_FILE);
+    if (!Files.exists(indexFile) || !Files.exists(bodiesFile)) {
+      bodies = ByteBuffer.allocate(0);
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        JsonNode entry = TestDataConstants.MAPPER.readTree(line);
+        long[] recorded = new long[] { entry.get("status").asLong(), entry.get("offset").asLong(),
+            entry.get("length").asLong() };
+        index.computeIfAbsent(entry.get("key").asText(), k -> new ArrayList<>()).add(recorded);
+        if (entry.has("exact")) {
+          exactIndex.computeIfAbsent(entry.get("exact").asText(), k -> new ArrayList<>()).add(recorded);
+        }
+      }
+    }
+    try (FileChannel data = FileChannel.open(bodiesFile, StandardOpenOption.READ)) {
+      bodies = data.map(FileChannel.MapMode.READ_ONLY, 0, data.size());
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static class Holder {
+    private static final RecordingStore INSTANCE = configure(TestDataConstants.HTTP_MODE.toUpperCase(Locale.ROOT));
+
+    private static RecordingStore configure(String mode) {
+      if (LIVE.equals(mode)) {
+        return null;
+      }
+      if (!RECORD.equals(mode) && !REPLAY.equals(mode)) {
+        throw InternalErrorException.builder().internalError()
+            .detail("jsonTest.http.mode must be " + LIVE + ", " + RECORD + " or " + REPLAY + ", not " + mode).build();
+      }
+      return open(Paths.get(TestDataConstants.RECORDINGS_PATH), mode);
+    }
+  }
+
+}
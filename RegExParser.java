@@ -2,37 +2,27 @@
 
 import com.jayway.jsonpath.JsonPath;
 
-import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 public class RegExParser {
 
-  private static HashMap<String, String> varMap = new HashMap<String, String>();
-  private static String REGEX_METHOD = "method";
-  private static String REGEX_VAR = "var";
-
   /**
    * function to prase regex.
    * 
    * @param json json
    */
   public static String regexParser(String json) {
+    return CompiledTemplate.cached(json).render();
+  }
 
-    Pattern pattern = Pattern.compile(TestDataConstants.PATTERN);
-    Matcher matcher = pattern.matcher(json);
-    StringBuffer replacedJson = new StringBuffer();
-
-    while (matcher.find()) {
-      String methodName = matcher.group(REGEX_METHOD);
-      String varName = matcher.group(REGEX_VAR);
-      matcher = (methodName != null)
-          ? matcher.appendReplacement(replacedJson, runHelperMethods(methodName))
-          : matcher.appendReplacement(replacedJson, getValue(varName));
-    }
-    matcher.appendTail(replacedJson);
-    return replacedJson.toString();
+  /**
+   * function to prase regex of a file, compiled once while the file does not change.
+   * 
+   * @param path path of the file
+   * @param json json
+   */
+  public static String regexParser(String path, String json) {
+    return CompiledTemplate.cached(path, json).render();
   }
 
   /**
@@ -42,51 +32,55 @@ public class RegExParser {
    * @param responseObj responseObj
    */
   public static String setQueryParameterswithResponseValues(String json, String responseObj) {
-    Pattern pattern = Pattern.compile(TestDataConstants.DB_PATTERN);
-    Matcher matcher = pattern.matcher(json);
-    StringBuffer replacedJson = new StringBuffer();
-    while (matcher.find()) {
-      String paramName = matcher.group(1);
-      matcher =
-          matcher.appendReplacement(replacedJson, replacewithResponseValue(paramName, responseObj));
-    }
-    matcher.appendTail(replacedJson);
-    return replacedJson.toString();
+    CompiledTemplate query = CompiledTemplate.cachedQuery(json);
+    return query.hasPlaceholders() ? query.render(JsonPath.parse(responseObj)) : json;
   }
 
   /**
-   * function to assign value to context.
+   * function to replace query parameters with values read from an already parsed response.
+   * 
+   * @param json json
+   * @param responseValues response values by path
+   */
+  public static String setQueryParameterswithResponseValues(String json, Function<String, Object> responseValues) {
+    return CompiledTemplate.cachedQuery(json).render(responseValues);
+  }
+
+  /**
+   * function to assign value to the context bound to the current thread.
    * 
    * @param var var
    * @param value value
    */
   public static void assignValue(String var, String value) {
-    varMap.put(var, value);
-    TestDataConstants.CONTEXT.set(varMap);
+    currentContext().put(var, value);
   }
 
   /**
-   * function to get value from context.
+   * function to get value from the context bound to the current thread.
    * 
    * @param var var
    */
 
   public static String getValue(String var) {
-    return TestDataConstants.CONTEXT.get().get(var);
+    return currentContext().get(var);
   }
 
-  private static String runHelperMethods(String methodName) {
-    try {
-      return (String) HelperMethods.class.getDeclaredMethod(methodName, null)
-          .invoke(new HelperMethods(), null);
-    } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException
-        | NoSuchMethodException | SecurityException e) {
-      throw InternalErrorException.builder().internalError().cause(e)
-          .detail("Exception occurred while executing helper methods").build();
+  private static VariableContext currentContext() {
+    VariableContext context = TestDataConstants.CONTEXT.get();
+    if (context == null) {
+      context = new VariableContext(null);
+      TestDataConstants.CONTEXT.set(context);
     }
+    return context;
   }
 
-  private static String replacewithResponseValue(String paramName, String responseObj) {
-    return JsonPath.parse(responseObj).read(paramName);
+  /**
+   * function to run a helper method expression such as generateUuid or randomInt(1,100).
+   * 
+   * @param methodName methodName
+   */
+  public static String runHelperMethods(String methodName) {
+    return HelperRegistry.getInstance().bind(methodName).invoke();
   }
 }
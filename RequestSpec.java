@@ -0,0 +1,155 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable description of one API call, its path, parameters, headers and body. Headers travel
+ * with the request, so a client shared between threads never holds per-request state.
+ */
+public final class RequestSpec {
+
+  private final String method;
+  private final UriTemplate path;
+  private final Map<String, String> pathParams;
+  private final Map<String, Object> queryParams;
+  private final Map<String, String> headers;
+  private final byte[] body;
+  private final CallPolicy policy;
+
+  private RequestSpec(Builder builder) {
+    this.method = builder.method;
+    this.path = UriTemplate.of(builder.path);
+    this.pathParams = copy(builder.pathParams);
+    this.queryParams = copy(builder.queryParams);
+    this.headers = copy(builder.headers);
+    this.body = builder.body;
+    this.policy = builder.policy == null ? CallPolicy.NONE : builder.policy;
+  }
+
+  /**
+   * function to start a request spec.
+   *
+   * @param method http method
+   * @param path path, may hold {name} path parameters.
+   */
+  public static Builder builder(String method, String path) {
+    return new Builder(method, path);
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public UriTemplate getPath() {
+    return path;
+  }
+
+  public Map<String, String> getPathParams() {
+    return pathParams;
+  }
+
+  public Map<String, Object> getQueryParams() {
+    return queryParams;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  public CallPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * function to expand the path of the request.
+   *
+   * @param baseUrl base url
+   */
+  public String toUri(String baseUrl) {
+    return path.expand(baseUrl, pathParams, queryParams);
+  }
+
+  @Override
+  public String toString() {
+    return method + " " + path.getTemplate();
+  }
+
+  private static <V> Map<String, V> copy(Map<String, V> map) {
+    return map == null || map.isEmpty() ? Collections.emptyMap()
+        : Collections.unmodifiableMap(new LinkedHashMap<>(map));
+  }
+
+  /**
+   * Builder of a {@link RequestSpec}.
+   */
+  public static final class Builder {
+
+    private final String method;
+    private final String path;
+    private Map<String, String> pathParams;
+    private Map<String, Object> queryParams;
+    private Map<String, String> headers;
+    private byte[] body;
+    private CallPolicy policy;
+
+    private Builder(String method, String path) {
+      this.method = method;
+      this.path = path;
+    }
+
+    public Builder pathParams(Map<String, String> pathParams) {
+      this.pathParams = pathParams;
+      return this;
+    }
+
+    public Builder queryParams(Map<String, Object> queryParams) {
+      this.queryParams = queryParams;
+      return this;
+    }
+
+    /**
+     * function to add a header.
+     *
+     * @param name name
+     * @param value value, the header is skipped when null.
+     */
+    public Builder header(String name, String value) {
+      if (value != null) {
+        if (headers == null) {
+          headers = new LinkedHashMap<>();
+        }
+        headers.put(name, value);
+      }
+      return this;
+    }
+
+    public Builder auth(String auth) {
+      return header("Authorization", auth);
+    }
+
+    public Builder body(byte[] body) {
+      this.body = body;
+      return this;
+    }
+
+    public Builder policy(CallPolicy policy) {
+      this.policy = policy;
+      return this;
+    }
+
+    /**
+     * function to build the spec, every request accepts json unless an Accept header is given.
+     */
+    public RequestSpec build() {
+      if (headers == null || !headers.containsKey("Accept")) {
+        header("Accept", "application/json");
+      }
+      return new RequestSpec(this);
+    }
+  }
+
+}
@@ -0,0 +1,193 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Applies the {@link CallPolicy} of a request around its attempts. The latency of every attempt is
+ * recorded per method and path template, and hedges wait for the configured percentile of it. Once
+ * the call completes, by a response, a failure or its deadline, the attempts still in flight are
+ * cancelled.
+ */
+public class ResilientExchange {
+
+  private static final int CACHE_SIZE = 4096;
+  private static final int HEDGE_MIN_SAMPLES = 20;
+  private static final long DEFAULT_BACKOFF_MILLIS = 50;
+  private static final long MAX_BACKOFF_MILLIS = 5000;
+  private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+  private static final Map<String, LatencyHistogram> LATENCIES = new ConcurrentHashMap<>();
+
+  private ResilientExchange() {
+  }
+
+  /**
+   * function to send a request under its policy.
+   *
+   * @param request request
+   * @param send sends one attempt of the request
+   * @return the first successful response, or the last failure once retries or the deadline ran out.
+   */
+  public static CompletableFuture<ApiResponse> execute(RequestSpec request,
+      Supplier<CompletableFuture<ApiResponse>> send) {
+    CallPolicy policy = request.getPolicy();
+    CompletableFuture<ApiResponse> result = new CompletableFuture<>();
+    Set<CompletableFuture<ApiResponse>> inFlight = ConcurrentHashMap.newKeySet();
+    Supplier<CompletableFuture<ApiResponse>> tracked = () -> {
+      CompletableFuture<ApiResponse> response = send.get();
+      inFlight.add(response);
+      response.whenComplete((r, e) -> inFlight.remove(response));
+      if (result.isDone()) {
+        response.cancel(true);
+      }
+      return response;
+    };
+    long deadline = Long.MAX_VALUE;
+    if (policy.getDeadlineMillis() > 0) {
+      deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.getDeadlineMillis());
+      result.orTimeout(policy.getDeadlineMillis(), TimeUnit.MILLISECONDS);
+    }
+    attempt(request, tracked, deadline, 0, result);
+    return result.whenComplete((response, e) -> {
+      for (CompletableFuture<ApiResponse> attempt : inFlight) {
+        attempt.cancel(true);
+      }
+    }).handle((response, e) -> {
+      if (e == null) {
+        return response;
+      }
+      Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      if (cause instanceof TimeoutException) {
+        throw InternalErrorException.builder().internalError().cause(cause)
+            .detail(request + " exceeded its deadline of " + policy.getDeadlineMillis() + " ms").build();
+      }
+      throw cause instanceof CompletionException ? (CompletionException) cause : new CompletionException(cause);
+    });
+  }
+
+  /**
+   * function to get the latencies recorded for an endpoint, in nanoseconds.
+   *
+   * @param method method
+   * @param pathTemplate pathTemplate
+   */
+  public static LatencyHistogram getLatencies(String method, String pathTemplate) {
+    String key = method + " " + pathTemplate;
+    LatencyHistogram latencies = LATENCIES.get(key);
+    if (latencies == null) {
+      latencies = new LatencyHistogram();
+      if (LATENCIES.size() < CACHE_SIZE) {
+        LatencyHistogram previous = LATENCIES.putIfAbsent(key, latencies);
+        latencies = previous != null ? previous : latencies;
+      }
+    }
+    return latencies;
+  }
+
+  private static void attempt(RequestSpec request, Supplier<CompletableFuture<ApiResponse>> send, long deadline,
+      int attempt, CompletableFuture<ApiResponse> result) {
+    if (result.isDone()) {
+      return;
+    }
+    hedged(request, send, result).whenComplete((response, e) -> {
+      if (result.isDone()) {
+        return;
+      }
+      CallPolicy policy = request.getPolicy();
+      boolean retryable = isIdempotent(request) && attempt < policy.getRetries()
+          && (e != null || isRetryableStatus(response.getStatus()));
+      long backoff = retryable ? backoffMillis(policy, attempt) : 0;
+      if (retryable && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) < deadline) {
+        CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS)
+            .execute(() -> attempt(request, send, deadline, attempt + 1, result));
+      } else if (e != null) {
+        result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+      } else {
+        result.complete(response);
+      }
+    });
+  }
+
+  private static CompletableFuture<ApiResponse> hedged(RequestSpec request,
+      Supplier<CompletableFuture<ApiResponse>> send, CompletableFuture<ApiResponse> result) {
+    CallPolicy policy = request.getPolicy();
+    // the path is already rendered, ids are folded back so every call to an endpoint shares one histogram
+    LatencyHistogram latencies =
+        getLatencies(request.getMethod(), UriTemplate.pathTemplate(request.getPath().getTemplate()));
+    if (!isIdempotent(request) || policy.getHedgePercentile() <= 0 || latencies.getCount() < HEDGE_MIN_SAMPLES) {
+      return timed(send, latencies);
+    }
+    long delay = Math.max(policy.getHedgeMinDelayMillis(),
+        TimeUnit.NANOSECONDS.toMillis(latencies.getValueAtPercentile(policy.getHedgePercentile())));
+    CompletableFuture<ApiResponse> first = new CompletableFuture<>();
+    AtomicInteger outstanding = new AtomicInteger(1);
+    complete(timed(send, latencies), first, outstanding);
+    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+      if (!first.isDone() && !result.isDone()) {
+        outstanding.incrementAndGet();
+        complete(timed(send, latencies), first, outstanding);
+      }
+    });
+    return first;
+  }
+
+  /**
+   * The first successful response completes the call, a failure only once no attempt is left.
+   */
+  private static void complete(CompletableFuture<ApiResponse> attempt, CompletableFuture<ApiResponse> first,
+      AtomicInteger outstanding) {
+    attempt.whenComplete((response, e) -> {
+      if (e == null && !isRetryableStatus(response.getStatus())) {
+        first.complete(response);
+      } else if (outstanding.decrementAndGet() == 0) {
+        if (e == null) {
+          first.complete(response);
+        } else {
+          first.completeExceptionally(e);
+        }
+      }
+    });
+  }
+
+  private static CompletableFuture<ApiResponse> timed(Supplier<CompletableFuture<ApiResponse>> send,
+      LatencyHistogram latencies) {
+    long start = System.nanoTime();
+    CompletableFuture<ApiResponse> response;
+    try {
+      response = send.get();
+    } catch (RuntimeException e) {
+      response = CompletableFuture.failedFuture(e);
+    }
+    return response.whenComplete((result, e) -> {
+      if (e == null) {
+        latencies.record(System.nanoTime() - start);
+      }
+    });
+  }
+
+  /**
+   * Full jitter: a random wait up to the exponential backoff of the attempt.
+   */
+  private static long backoffMillis(CallPolicy policy, int attempt) {
+    long base = policy.getRetryBackoffMillis() > 0 ? policy.getRetryBackoffMillis() : DEFAULT_BACKOFF_MILLIS;
+    long ceiling = Math.min(MAX_BACKOFF_MILLIS, base << Math.min(attempt, 16));
+    return ThreadLocalRandom.current().nextLong(ceiling + 1);
+  }
+
+  private static boolean isIdempotent(RequestSpec request) {
+    return IDEMPOTENT_METHODS.contains(request.getMethod());
+  }
+
+  private static boolean isRetryableStatus(int status) {
+    return status == 502 || status == 503 || status == 504;
+  }
+
+}
@@ -0,0 +1,159 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams test results to the sinks from a background thread. Test threads only append to a
+ * lock-free queue bounded by jsonTest.report.queueCapacity. When the writer falls that far behind
+ * results are dropped and counted instead of blocking the test threads, so a run of any length
+ * keeps a bounded footprint. The dropped count is written to every sink when the reporter closes.
+ */
+public class ResultReporter implements AutoCloseable {
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final List<ResultSink> sinks;
+  private final Queue<TestResult> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final int capacity;
+  private final Thread writer;
+  private volatile boolean closed;
+  private volatile IOException writeFailure;
+
+  /**
+   * Initialize the reporter and start its writer thread.
+   *
+   * @param sinks sinks
+   */
+  public ResultReporter(ResultSink... sinks) {
+    this.sinks = new ArrayList<>(Arrays.asList(sinks));
+    this.capacity = TestDataConstants.REPORT_QUEUE_CAPACITY;
+    this.writer = new Thread(this::drain, "result-reporter");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * function to report to a jsonl file and a JUnit XML file.
+   *
+   * @param jsonl jsonl file, null for none.
+   * @param junitXml JUnit XML file, null for none.
+   * @param suiteName suite name of the JUnit XML report
+   */
+  public static ResultReporter to(Path jsonl, Path junitXml, String suiteName) {
+    List<ResultSink> sinks = new ArrayList<>();
+    try {
+      if (jsonl != null) {
+        sinks.add(new JsonlResultSink(jsonl));
+      }
+      if (junitXml != null) {
+        sinks.add(new JUnitXmlResultSink(junitXml, suiteName));
+      }
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while opening the result reports").build();
+    }
+    return new ResultReporter(sinks.toArray(new ResultSink[0]));
+  }
+
+  /**
+   * function to publish a result, never blocks.
+   *
+   * @param result result
+   * @return false when the result was dropped because the queue is full or the reporter closed.
+   */
+  public boolean publish(TestResult result) {
+    if (closed || queued.incrementAndGet() > capacity) {
+      queued.decrementAndGet();
+      dropped.incrementAndGet();
+      return false;
+    }
+    queue.offer(result);
+    // close() may have drained the queue between the check and the offer
+    if (closed && queue.remove(result)) {
+      queued.decrementAndGet();
+      dropped.incrementAndGet();
+      return false;
+    }
+    LockSupport.unpark(writer);
+    return true;
+  }
+
+  public long getWritten() {
+    return written.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * function to write the queued results and close the sinks.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(writer);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    TestResult result;
+    while ((result = queue.poll()) != null) {
+      queued.decrementAndGet();
+      write(result);
+    }
+    for (ResultSink sink : sinks) {
+      try {
+        sink.writeDropped(dropped.get());
+        sink.close();
+      } catch (IOException e) {
+        writeFailure = writeFailure == null ? e : writeFailure;
+      }
+    }
+    if (writeFailure != null) {
+      throw InternalErrorException.builder().internalError().cause(writeFailure)
+          .detail("Exception occurred while writing the result reports").build();
+    }
+  }
+
+  private void drain() {
+    while (true) {
+      TestResult result = queue.poll();
+      if (result == null) {
+        if (closed && queue.isEmpty()) {
+          return;
+        }
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        continue;
+      }
+      queued.decrementAndGet();
+      write(result);
+    }
+  }
+
+  private void write(TestResult result) {
+    for (ResultSink sink : sinks) {
+      try {
+        sink.write(result);
+      } catch (IOException e) {
+        writeFailure = writeFailure == null ? e : writeFailure;
+      }
+    }
+    written.incrementAndGet();
+  }
+
+}
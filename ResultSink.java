@@ -0,0 +1,20 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Output format of the result reporter. Sinks are only called from the writer thread of the
+ * reporter.
+ */
+public interface ResultSink extends Closeable {
+
+  void write(TestResult result) throws IOException;
+
+  /**
+   * function to record the number of results the reporter dropped, called once before the sink is
+   * closed.
+   *
+   * @param dropped dropped
+   */
+  void writeDropped(long dropped) throws IOException;
+
+}
@@ -0,0 +1,219 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a suite as several worker JVMs, one per shard, and merges their results. Each worker runs
+ * the given main class with the jsonTest system properties of this process and its shard set
+ * through jsonTest.shard.index and jsonTest.shard.count, and reports to its own jsonl file. Each
+ * worker also starts from its own copy of the incremental test cache, and the copies are merged
+ * back into jsonTest.incremental.cache once every worker has exited.
+ */
+public class ShardCoordinator {
+
+  private final String mainClass;
+  private final List<String> arguments;
+  private final int shards;
+  private final Path outputDirectory;
+
+  /**
+   * Initialize the coordinator.
+   *
+   * @param mainClass main class of the workers, running the suite through {@link ParallelTestRunner}.
+   * @param arguments arguments of the workers
+   * @param shards shards
+   * @param outputDirectory directory of the worker logs, results and merged results.
+   */
+  public ShardCoordinator(String mainClass, List<String> arguments, int shards, Path outputDirectory) {
+    this.mainClass = mainClass;
+    this.arguments = arguments;
+    this.shards = shards;
+    this.outputDirectory = outputDirectory;
+  }
+
+  /**
+   * Run the workers: {@code ShardCoordinator <shards> <mainClass> [arguments...]}. Exits with 1 when
+   * a test or a worker failed.
+   */
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      System.err.println("usage: ShardCoordinator <shards> <mainClass> [arguments...]");
+      System.exit(2);
+    }
+    ShardCoordinator coordinator = new ShardCoordinator(args[1], Arrays.asList(args).subList(2, args.length),
+        Integer.parseInt(args[0]), Paths.get(System.getProperty("jsonTest.shard.output", "build/jsonTest/shards")));
+    Summary summary = coordinator.run();
+    System.out.println(summary);
+    System.exit(summary.isSuccessful() ? 0 : 1);
+  }
+
+  /**
+   * function to run every shard in its own JVM, wait for all of them and merge their results into
+   * results.jsonl of the output directory. The merged file can be passed as jsonTest.shard.durations
+   * to balance the next run.
+   */
+  public Summary run() {
+    try {
+      Files.createDirectories(outputDirectory);
+      boolean incremental = !TestCache.OFF.equals(TestDataConstants.INCREMENTAL_MODE);
+      Path testCache = Paths.get(TestDataConstants.TEST_CACHE_PATH);
+      List<Path> shardCaches = new ArrayList<>(shards);
+      List<Process> workers = new ArrayList<>(shards);
+      for (int i = 0; i < shards; i++) {
+        shardCaches.add(shardCache(i));
+        if (incremental && Files.exists(testCache)) {
+          Files.copy(testCache, shardCache(i), StandardCopyOption.REPLACE_EXISTING);
+        } else if (incremental) {
+          Files.deleteIfExists(shardCache(i));
+        }
+        workers.add(worker(i).start());
+      }
+      int failedShards = 0;
+      for (Process worker : workers) {
+        if (worker.waitFor() != 0) {
+          failedShards++;
+        }
+      }
+      if (incremental) {
+        TestCache.merge(testCache, shardCaches);
+      }
+      return merge(failedShards);
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while running the shards").build();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Interrupted while waiting for the shards").build();
+    }
+  }
+
+  private ProcessBuilder worker(int shard) {
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    for (Map.Entry<Object, Object> property : System.getProperties().entrySet()) {
+      String name = property.getKey().toString();
+      if (name.startsWith("jsonTest.") && !name.startsWith("jsonTest.shard.")
+          && !name.equals("jsonTest.incremental.cache")) {
+        command.add("-D" + name + "=" + property.getValue());
+      }
+    }
+    command.add("-DjsonTest.shard.index=" + shard);
+    command.add("-DjsonTest.shard.count=" + shards);
+    command.add("-DjsonTest.shard.results=" + shardResults(shard));
+    command.add("-DjsonTest.incremental.cache=" + shardCache(shard));
+    if (TestDataConstants.SHARD_DURATIONS != null) {
+      command.add("-DjsonTest.shard.durations=" + TestDataConstants.SHARD_DURATIONS);
+    }
+    command.add(mainClass);
+    command.addAll(arguments);
+    File log = outputDirectory.resolve("shard-" + shard + ".log").toFile();
+    return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log);
+  }
+
+  private Path shardCache(int shard) {
+    return outputDirectory.resolve("shard-" + shard + "-cache.json").toAbsolutePath();
+  }
+
+  private Path shardResults(int shard) {
+    return outputDirectory.resolve("shard-" + shard + ".jsonl").toAbsolutePath();
+  }
+
+  private Summary merge(int failedShards) throws IOException {
+    Path merged = outputDirectory.resolve("results.jsonl");
+    int passed = 0;
+    int failed = 0;
+    long dropped = 0;
+    try (BufferedWriter writer = Files.newBufferedWriter(merged, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < shards; i++) {
+        Path results = shardResults(i);
+        if (!Files.isRegularFile(results)) {
+          continue;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(results, StandardCharsets.UTF_8)) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+              continue;
+            }
+            JsonNode result = TestDataConstants.MAPPER.readTree(line);
+            if (!result.has("testName")) {
+              dropped += result.path("dropped").asLong();
+              continue;
+            }
+            if (result.path("passed").asBoolean()) {
+              passed++;
+            } else {
+              failed++;
+            }
+            writer.write(line);
+            writer.newLine();
+          }
+        }
+      }
+      writer.write("{\"dropped\":" + dropped + "}");
+      writer.newLine();
+    }
+    return new Summary(merged, passed, failed, failedShards);
+  }
+
+  /**
+   * Outcome of a sharded run.
+   */
+  public static class Summary {
+
+    private final Path results;
+    private final int passed;
+    private final int failed;
+    private final int failedShards;
+
+    Summary(Path results, int passed, int failed, int failedShards) {
+      this.results = results;
+      this.passed = passed;
+      this.failed = failed;
+      this.failedShards = failedShards;
+    }
+
+    public Path getResults() {
+      return results;
+    }
+
+    public int getPassed() {
+      return passed;
+    }
+
+    public int getFailed() {
+      return failed;
+    }
+
+    public int getFailedShards() {
+      return failedShards;
+    }
+
+    public boolean isSuccessful() {
+      return failed == 0 && failedShards == 0;
+    }
+
+    @Override
+    public String toString() {
+      return passed + " passed, " + failed + " failed, " + failedShards + " shards failed, results in " + results;
+    }
+  }
+
+}
@@ -0,0 +1,154 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+import com.paysafe.ss.ledger.component.dto.TestCaseDto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Splits a suite into shards of about the same duration. Tests sharing a suite scoped prerequisite
+ * chain stay in one shard, so the chain still runs once. Groups are assigned longest first to the
+ * shard with the least work, using the durations of a previous results jsonl file.
+ */
+public class ShardPlanner {
+
+  private ShardPlanner() {
+  }
+
+  /**
+   * function to get the tests of the shard this process runs, configured through
+   * jsonTest.shard.index, jsonTest.shard.count and jsonTest.shard.durations.
+   *
+   * @param testCases testCases by name
+   * @param testNames testNames of the whole suite
+   */
+  public static List<String> configuredShard(Function<String, TestCaseDto> testCases, Collection<String> testNames) {
+    String durations = TestDataConstants.SHARD_DURATIONS;
+    Map<String, Long> history = Objects.isNull(durations) ? new HashMap<>() : readDurations(Path.of(durations));
+    return plan(testCases, testNames, history, TestDataConstants.SHARD_COUNT).get(TestDataConstants.SHARD_INDEX);
+  }
+
+  /**
+   * function to read the duration of each test from a results jsonl file, in microseconds.
+   *
+   * @param results results, an empty map when the file does not exist.
+   */
+  public static Map<String, Long> readDurations(Path results) {
+    Map<String, Long> durations = new HashMap<>();
+    if (!Files.isRegularFile(results)) {
+      return durations;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(results, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        JsonNode result = TestDataConstants.MAPPER.readTree(line);
+        if (!result.has("testName") || result.path("skipped").asBoolean()) {
+          continue;
+        }
+        // rows of a data driven test are reported as testName[row], they add up to the test
+        String testName = result.path("testName").asText();
+        int row = testName.endsWith("]") ? testName.lastIndexOf('[') : -1;
+        durations.merge(row > 0 ? testName.substring(0, row) : testName, result.path("durationMicros").asLong(),
+            Long::sum);
+      }
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while reading test durations from " + results).build();
+    }
+    return durations;
+  }
+
+  /**
+   * function to split tests into shards. Tests without a recorded duration count as the mean
+   * duration.
+   *
+   * @param testCases testCases by name
+   * @param testNames testNames
+   * @param durations durations by test name
+   * @param shards number of shards
+   * @return the tests of each shard, in the order of testNames.
+   */
+  public static List<List<String>> plan(Function<String, TestCaseDto> testCases, Collection<String> testNames,
+      Map<String, Long> durations, int shards) {
+    if (shards < 1) {
+      throw InternalErrorException.builder().internalError().detail("Shard count must be at least 1").build();
+    }
+    long known = 0;
+    int knownCount = 0;
+    for (String testName : testNames) {
+      Long duration = durations.get(testName);
+      if (duration != null) {
+        known += duration;
+        knownCount++;
+      }
+    }
+    long defaultDuration = knownCount == 0 ? 1 : Math.max(1, known / knownCount);
+
+    Map<String, Long> groups = new LinkedHashMap<>();
+    Map<String, String> groupOf = new HashMap<>();
+    for (String testName : testNames) {
+      String group = groupKey(testName, testCases.apply(testName));
+      groupOf.put(testName, group);
+      groups.merge(group, durations.getOrDefault(testName, defaultDuration), Long::sum);
+    }
+    List<Map.Entry<String, Long>> ordered = new ArrayList<>(groups.entrySet());
+    ordered.sort((a, b) -> b.getValue().equals(a.getValue()) ? a.getKey().compareTo(b.getKey())
+        : Long.compare(b.getValue(), a.getValue()));
+
+    long[] load = new long[shards];
+    Map<String, Integer> shardOf = new HashMap<>();
+    for (Map.Entry<String, Long> group : ordered) {
+      int lightest = 0;
+      for (int i = 1; i < shards; i++) {
+        if (load[i] < load[lightest]) {
+          lightest = i;
+        }
+      }
+      load[lightest] += group.getValue();
+      shardOf.put(group.getKey(), lightest);
+    }
+
+    List<List<String>> plan = new ArrayList<>(shards);
+    for (int i = 0; i < shards; i++) {
+      plan.add(new ArrayList<>());
+    }
+    Set<String> seen = new HashSet<>();
+    for (String testName : testNames) {
+      if (seen.add(testName)) {
+        plan.get(shardOf.get(groupOf.get(testName))).add(testName);
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Tests resolve suite scoped prerequisites through nodes keyed by the chain prefix, see
+   * {@link PrerequisiteGraph}, so tests starting with the same step share work.
+   */
+  private static String groupKey(String testName, TestCaseDto testCase) {
+    if (Objects.isNull(testCase) || Objects.isNull(testCase.getPrerequisite()) || testCase.getPrerequisite().isEmpty()
+        || PrerequisiteGraph.TEST_SCOPE.equals(testCase.getPrerequisiteScope())) {
+      return "test:" + testName;
+    }
+    return Objects.toString(testCase.getPrerequisiteScope(), PrerequisiteGraph.SUITE_SCOPE) + ">"
+        + testCase.getPrerequisite().get(0);
+  }
+
+}
@@ -0,0 +1,206 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assertion engine for very large responses. The response is read as a single forward pass of
+ * parser events and only the values of the requested paths are kept, subtrees no path leads into
+ * are skipped. Supports $.field, ['field'], [index], [*] and .* steps.
+ */
+public class StreamingAssertionEngine extends AssertionEngine {
+
+  private static final Object WILDCARD = new Object();
+  private static final int NONE = 0;
+  private static final int PREFIX = 1;
+  private static final int EXACT = 2;
+
+  private final Map<String, Object[]> patterns = new LinkedHashMap<>();
+  private final Map<String, JsonNode> values = new HashMap<>();
+
+  private StreamingAssertionEngine(Collection<String> paths) {
+    super(MissingNode.getInstance(), null);
+    for (String path : paths) {
+      String key = normalize(path);
+      Object[] pattern = compilePath(key);
+      patterns.put(key, pattern);
+      if (!isDefinite(pattern)) {
+        values.put(key, TestDataConstants.MAPPER.createArrayNode());
+      }
+    }
+  }
+
+  /**
+   * function to read the given paths from a response stream in one pass.
+   *
+   * @param body body
+   * @param paths paths the test will read
+   */
+  public static StreamingAssertionEngine parse(InputStream body, Collection<String> paths) {
+    StreamingAssertionEngine engine = new StreamingAssertionEngine(paths);
+    try (JsonParser parser = TestDataConstants.RESPONSE_READER.createParser(body)) {
+      if (parser.nextToken() != null) {
+        engine.readValue(parser, new ArrayList<>());
+      }
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while reading response").build();
+    }
+    return engine;
+  }
+
+  @Override
+  public Object read(String path) {
+    return JsonPaths.unwrap(values.get(normalize(path)));
+  }
+
+  private void readValue(JsonParser parser, List<Object> path) throws IOException {
+    int match = NONE;
+    for (Object[] pattern : patterns.values()) {
+      match = Math.max(match, match(pattern, path));
+    }
+    JsonToken token = parser.currentToken();
+    if (match == NONE) {
+      parser.skipChildren();
+    } else if (match == EXACT) {
+      capture(path, parser.readValueAsTree());
+    } else if (token == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        path.add(parser.getCurrentName());
+        parser.nextToken();
+        readValue(parser, path);
+        path.remove(path.size() - 1);
+      }
+    } else if (token == JsonToken.START_ARRAY) {
+      int index = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        path.add(index++);
+        readValue(parser, path);
+        path.remove(path.size() - 1);
+      }
+    }
+  }
+
+  private void capture(List<Object> path, JsonNode node) {
+    for (Map.Entry<String, Object[]> pattern : patterns.entrySet()) {
+      if (match(pattern.getValue(), path) != NONE) {
+        resolve(pattern.getKey(), pattern.getValue(), path.size(), node);
+      }
+    }
+  }
+
+  private void resolve(String key, Object[] pattern, int from, JsonNode node) {
+    if (node == null) {
+      return;
+    }
+    if (from == pattern.length) {
+      JsonNode captured = values.get(key);
+      if (captured instanceof ArrayNode) {
+        ((ArrayNode) captured).add(node);
+      } else {
+        values.put(key, node);
+      }
+      return;
+    }
+    Object step = pattern[from];
+    if (step == WILDCARD) {
+      Iterator<JsonNode> elements = node.elements();
+      while (elements.hasNext()) {
+        resolve(key, pattern, from + 1, elements.next());
+      }
+    } else if (step instanceof Integer) {
+      resolve(key, pattern, from + 1, node.isArray() ? node.get((Integer) step) : null);
+    } else {
+      resolve(key, pattern, from + 1, node.isObject() ? node.get((String) step) : null);
+    }
+  }
+
+  private static int match(Object[] pattern, List<Object> path) {
+    if (path.size() > pattern.length) {
+      return NONE;
+    }
+    for (int i = 0; i < path.size(); i++) {
+      if (pattern[i] != WILDCARD && !pattern[i].equals(path.get(i))) {
+        return NONE;
+      }
+    }
+    return path.size() == pattern.length ? EXACT : PREFIX;
+  }
+
+  private static boolean isDefinite(Object[] pattern) {
+    for (Object step : pattern) {
+      if (step == WILDCARD) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String normalize(String path) {
+    String trimmed = path.trim();
+    return trimmed.startsWith("$") ? trimmed : "$." + trimmed;
+  }
+
+  private static Object[] compilePath(String path) {
+    List<Object> steps = new ArrayList<>();
+    int length = path.length();
+    int i = 1;
+    while (i < length) {
+      char c = path.charAt(i);
+      if (c == '.' && i + 1 < length && path.charAt(i + 1) != '.') {
+        int end = i + 1;
+        while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+          end++;
+        }
+        String name = path.substring(i + 1, end);
+        steps.add("*".equals(name) ? WILDCARD : name);
+        i = end;
+      } else if (c == '[' && path.indexOf(']', i) > 0) {
+        int end = path.indexOf(']', i);
+        steps.add(compileBracket(path, path.substring(i + 1, end).trim()));
+        i = end + 1;
+      } else {
+        throw unsupported(path);
+      }
+    }
+    return steps.toArray();
+  }
+
+  private static Object compileBracket(String path, String step) {
+    if ("*".equals(step)) {
+      return WILDCARD;
+    }
+    if (step.length() > 1 && (step.charAt(0) == '\'' || step.charAt(0) == '"')
+        && step.charAt(step.length() - 1) == step.charAt(0)) {
+      return step.substring(1, step.length() - 1);
+    }
+    try {
+      int index = Integer.parseInt(step);
+      if (index >= 0) {
+        return index;
+      }
+    } catch (NumberFormatException e) {
+      // falls through to the unsupported path error
+    }
+    throw unsupported(path);
+  }
+
+  private static InternalErrorException unsupported(String path) {
+    return InternalErrorException.builder().internalError()
+        .detail("JsonPath " + path + " is not supported in streaming mode").build();
+  }
+
+}
@@ -0,0 +1,85 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Local HTTP server answering every request from a {@link RecordingStore}, so a suite can run
+ * offline against the responses recorded from the real services. Requests that were not recorded
+ * get a 404.
+ */
+public class StubServer implements AutoCloseable {
+
+  private final HttpServer server;
+  private final ExecutorService executorService;
+
+  private StubServer(HttpServer server, ExecutorService executorService) {
+    this.server = server;
+    this.executorService = executorService;
+  }
+
+  /**
+   * function to start a stub server on the loopback interface.
+   *
+   * @param port port, 0 for any free port.
+   * @param store store the responses are served from
+   */
+  public static StubServer start(int port, RecordingStore store) {
+    try {
+      HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+      ExecutorService executorService =
+          ExecutorMode.VIRTUAL_THREADS.newExecutor(TestDataConstants.RUNNER_PARALLELISM);
+      server.setExecutor(executorService);
+      server.createContext("/", exchange -> serve(exchange, store));
+      server.start();
+      return new StubServer(server, executorService);
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while starting the stub server").build();
+    }
+  }
+
+  /**
+   * function to get the base url of the server.
+   */
+  public String getBaseUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executorService.shutdown();
+  }
+
+  private static void serve(HttpExchange exchange, RecordingStore store) throws IOException {
+    try (InputStream requestBody = exchange.getRequestBody()) {
+      String method = exchange.getRequestMethod();
+      String query = exchange.getRequestURI().getRawQuery();
+      String uri = exchange.getRequestURI().getRawPath() + (query == null ? "" : "?" + query);
+      byte[] body = requestBody.readAllBytes();
+      ApiResponse response = store.replay(method, uri, body);
+      if (response == null) {
+        byte[] error = TestDataConstants.MAPPER.writeValueAsBytes(TestDataConstants.MAPPER.createObjectNode()
+            .put("error", "No recording for " + RecordingStore.key(method, uri, body)));
+        response = new ApiResponse(404, error);
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(response.getStatus(), response.hasBody() ? response.getBody().length : -1);
+      if (response.hasBody()) {
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+          responseBody.write(response.getBody());
+        }
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+}
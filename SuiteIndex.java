@@ -0,0 +1,304 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable index of the suite resources. Every file is read, hashed and parsed once at startup,
+ * placeholders are resolved on the parsed tree when the file is used.
+ */
+public class SuiteIndex {
+
+  private static final Path RECORDINGS = Paths.get(TestDataConstants.RECORDINGS_PATH).toAbsolutePath().normalize();
+
+  private final Map<String, IndexedFile> files;
+
+  private SuiteIndex(Map<String, IndexedFile> files) {
+    this.files = Collections.unmodifiableMap(files);
+  }
+
+  /**
+   * function to read and parse every file under the given directories.
+   *
+   * @param directories directories, missing ones are ignored.
+   */
+  public static SuiteIndex load(String... directories) {
+    Map<String, IndexedFile> files = new HashMap<>();
+    for (String directory : directories) {
+      Path root = Paths.get(directory);
+      if (!Files.isDirectory(root)) {
+        continue;
+      }
+      try (Stream<Path> paths = Files.walk(root)) {
+        for (Path path : paths.filter(SuiteIndex::isIndexed).collect(Collectors.toList())) {
+          String key = key(path.toString());
+          if (!files.containsKey(key)) {
+            files.put(key, new IndexedFile(key, Files.readAllBytes(path)));
+          }
+        }
+      } catch (IOException e) {
+        throw InternalErrorException.builder().internalError().cause(e)
+            .detail("Exception occurred while indexing " + directory).build();
+      }
+    }
+    return new SuiteIndex(files);
+  }
+
+  public boolean contains(String path) {
+    return files.containsKey(key(path));
+  }
+
+  /**
+   * function to get an indexed file.
+   *
+   * @param path path
+   */
+  public IndexedFile get(String path) {
+    IndexedFile file = files.get(key(path));
+    if (file == null) {
+      throw InternalErrorException.builder().internalError().detail(path + " is not present in the suite index")
+          .build();
+    }
+    return file;
+  }
+
+  /**
+   * function to bind a file to the given type after resolving its placeholders.
+   *
+   * @param path path
+   * @param type type
+   */
+  public <T> T read(String path, Class<T> type) {
+    try {
+      return TestDataConstants.MAPPER.treeToValue(get(path).render(), type);
+    } catch (JsonProcessingException e) {
+      throw InternalErrorException.builder().internalError().cause(e).detail("Exception occurred while reading file")
+          .build();
+    }
+  }
+
+  /**
+   * function to convert a file to the given type as it is on disk, without resolving placeholders.
+   *
+   * @param path path
+   * @param type type
+   */
+  public <T> T readValue(String path, TypeReference<T> type) {
+    return TestDataConstants.MAPPER.convertValue(get(path).getTree(), type);
+  }
+
+  public Map<String, IndexedFile> getFiles() {
+    return files;
+  }
+
+  /**
+   * Only json files are indexed. jsonl suites and files above jsonTest.index.maxFileBytes are read
+   * lazily by {@link TestSuiteFile}, data sources are streamed by {@link DataSource}, and the
+   * recordings under jsonTest.http.recordings are served by {@link RecordingStore}, so none of them
+   * is held in memory.
+   */
+  private static boolean isIndexed(Path path) {
+    try {
+      return Files.isRegularFile(path) && path.toString().endsWith(".json")
+          && !path.toAbsolutePath().normalize().startsWith(RECORDINGS)
+          && Files.size(path) <= TestDataConstants.INDEX_MAX_FILE_BYTES;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static String key(String path) {
+    return Paths.get(path).normalize().toString();
+  }
+
+  /**
+   * A file of the suite with its content hash and parsed tree.
+   */
+  public static class IndexedFile {
+
+    private final String path;
+    private final String content;
+    private final String contentHash;
+    private final JsonNode tree;
+    private final CompiledTemplate template;
+    private final List<TemplatedValue> templatedValues = new ArrayList<>();
+    private final boolean templated;
+    private final boolean treeTemplated;
+
+    IndexedFile(String path, byte[] bytes) {
+      this.path = path;
+      this.content = new String(bytes, StandardCharsets.UTF_8);
+      this.contentHash = sha256(bytes);
+      this.tree = parse(content);
+      this.template = CompiledTemplate.compile(content);
+      this.templated = template.hasPlaceholders();
+      this.treeTemplated = templated && tree != null && collectTemplatedValues(tree, JsonPointer.empty());
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public String getContent() {
+      return content;
+    }
+
+    public String getContentHash() {
+      return contentHash;
+    }
+
+    /**
+     * function to get the parsed tree as it is on disk. The tree is shared and must not be modified.
+     */
+    public JsonNode getTree() {
+      if (tree == null) {
+        throw InternalErrorException.builder().internalError().detail(path + " is not a json file").build();
+      }
+      return tree;
+    }
+
+    /**
+     * function to get the tree with placeholders resolved against the context of the current thread.
+     * Files without placeholders return the shared tree, which must not be modified.
+     */
+    public JsonNode render() {
+      if (!templated) {
+        return getTree();
+      }
+      if (!treeTemplated) {
+        return parseRendered(template.render());
+      }
+      JsonNode rendered = tree.deepCopy();
+      for (TemplatedValue value : templatedValues) {
+        value.render(rendered);
+      }
+      return rendered;
+    }
+
+    /**
+     * function to get the tree with placeholders resolved, as a copy the caller may modify.
+     */
+    public JsonNode renderCopy() {
+      return templated ? render() : getTree().deepCopy();
+    }
+
+    private boolean collectTemplatedValues(JsonNode node, JsonPointer pointer) {
+      if (node.isObject()) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+          Map.Entry<String, JsonNode> field = fields.next();
+          if (CompiledTemplate.compile(field.getKey()).hasPlaceholders()) {
+            return false;
+          }
+          CompiledTemplate value = compileText(field.getValue());
+          if (value != null) {
+            templatedValues.add(new TemplatedValue(pointer, field.getKey(), -1, value));
+          } else if (!collectTemplatedValues(field.getValue(), child(pointer, field.getKey()))) {
+            return false;
+          }
+        }
+      } else if (node.isArray()) {
+        for (int i = 0; i < node.size(); i++) {
+          JsonNode element = node.get(i);
+          CompiledTemplate value = compileText(element);
+          if (value != null) {
+            templatedValues.add(new TemplatedValue(pointer, null, i, value));
+          } else if (!collectTemplatedValues(element, child(pointer, String.valueOf(i)))) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    private static CompiledTemplate compileText(JsonNode node) {
+      if (!node.isTextual()) {
+        return null;
+      }
+      CompiledTemplate compiled = CompiledTemplate.compile(node.textValue());
+      return compiled.hasPlaceholders() ? compiled : null;
+    }
+
+    private static JsonPointer child(JsonPointer pointer, String property) {
+      return JsonPointer.compile(pointer.toString() + "/" + property.replace("~", "~0").replace("/", "~1"));
+    }
+
+    private static JsonNode parse(String json) {
+      try {
+        return TestDataConstants.MAPPER.readTree(json);
+      } catch (JsonProcessingException e) {
+        return null;
+      }
+    }
+
+    private JsonNode parseRendered(String json) {
+      JsonNode parsed = parse(json);
+      if (parsed == null) {
+        throw InternalErrorException.builder().internalError().detail(path + " is not valid json after templating")
+            .build();
+      }
+      return parsed;
+    }
+
+    private static String sha256(byte[] bytes) {
+      try {
+        StringBuilder hash = new StringBuilder(64);
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+          hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hash.toString();
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /**
+   * A text value of the tree holding placeholders.
+   */
+  private static class TemplatedValue {
+
+    private final JsonPointer parent;
+    private final String field;
+    private final int index;
+    private final CompiledTemplate template;
+
+    TemplatedValue(JsonPointer parent, String field, int index, CompiledTemplate template) {
+      this.parent = parent;
+      this.field = field;
+      this.index = index;
+      this.template = template;
+    }
+
+    void render(JsonNode root) {
+      JsonNode container = root.at(parent);
+      String value = template.render();
+      if (field != null) {
+        ((ObjectNode) container).put(field, value);
+      } else {
+        ((ArrayNode) container).set(index, TestDataConstants.MAPPER.getNodeFactory().textNode(value));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,149 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of the dependency fingerprints of the tests that passed. A test whose
+ * fingerprint is unchanged since it last passed does not need to run again.
+ */
+public class TestCache {
+
+  public static final String OFF = "OFF";
+  public static final String SKIP = "SKIP";
+  public static final String DEPRIORITIZE = "DEPRIORITIZE";
+
+  private final Path path;
+  private final Map<String, String> passed;
+  private final Map<String, String> pending = new ConcurrentHashMap<>();
+
+  private TestCache(Path path, Map<String, String> passed) {
+    this.path = path;
+    this.passed = new ConcurrentHashMap<>(passed);
+  }
+
+  /**
+   * function to get an empty cache that is never read from disk, for runs without incremental
+   * selection.
+   */
+  public static TestCache empty() {
+    return new TestCache(null, new TreeMap<>());
+  }
+
+  /**
+   * function to load the cache, empty when the file does not exist yet.
+   *
+   * @param path path
+   */
+  public static TestCache load(Path path) {
+    if (!Files.exists(path)) {
+      return new TestCache(path, new TreeMap<>());
+    }
+    try {
+      return new TestCache(path, TestDataConstants.MAPPER.readValue(path.toFile(),
+          new TypeReference<Map<String, String>>() {
+          }));
+    } catch (IOException e) {
+      // a corrupt cache only costs a full run
+      return new TestCache(path, new TreeMap<>());
+    }
+  }
+
+  /**
+   * function to check whether a test passed with the same fingerprint before.
+   *
+   * @param testName testName
+   * @param fingerprint fingerprint
+   */
+  public boolean isUpToDate(String testName, String fingerprint) {
+    return fingerprint.equals(passed.get(testName));
+  }
+
+  /**
+   * function to note the fingerprint of a test about to run, kept when the test passes.
+   *
+   * @param testName testName
+   * @param fingerprint fingerprint
+   */
+  public void expect(String testName, String fingerprint) {
+    pending.put(testName, fingerprint);
+  }
+
+  /**
+   * function to record the outcome of a test expected before.
+   *
+   * @param testName testName
+   * @param testPassed testPassed
+   */
+  public void complete(String testName, boolean testPassed) {
+    String fingerprint = pending.remove(testName);
+    if (fingerprint == null) {
+      return;
+    }
+    if (testPassed) {
+      passed.put(testName, fingerprint);
+    } else {
+      passed.remove(testName);
+    }
+  }
+
+  /**
+   * function to merge the caches written by the shards of a run into the cache they were copied
+   * from. A shard only adds, changes or removes the entries of its own tests, so every difference
+   * from the original cache is the outcome of a test of that shard. A missing shard cache changes
+   * nothing.
+   *
+   * @param path path of the original cache, replaced by the merged one.
+   * @param shardCaches shardCaches
+   */
+  public static void merge(Path path, List<Path> shardCaches) {
+    Map<String, String> original = load(path).passed;
+    Map<String, String> merged = new TreeMap<>(original);
+    for (Path shardCache : shardCaches) {
+      if (!Files.exists(shardCache)) {
+        continue;
+      }
+      Map<String, String> shard = load(shardCache).passed;
+      for (String testName : original.keySet()) {
+        if (!shard.containsKey(testName)) {
+          merged.remove(testName);
+        }
+      }
+      for (Map.Entry<String, String> entry : shard.entrySet()) {
+        if (!entry.getValue().equals(original.get(entry.getKey()))) {
+          merged.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    new TestCache(path, merged).save();
+  }
+
+  /**
+   * function to write the cache, replacing the previous file atomically. An empty cache is not
+   * written.
+   */
+  public void save() {
+    if (path == null) {
+      return;
+    }
+    try {
+      Path parent = path.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+      TestDataConstants.MAPPER.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), new TreeMap<>(passed));
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while writing the test cache " + path).build();
+    }
+  }
+
+}
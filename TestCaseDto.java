@@ -8,6 +8,10 @@ public class TestCaseDto {
 
   private String url;
   private List<String> prerequisite;
+  private String prerequisiteScope;
+  private String dataSource;
+  private CallPolicy callPolicy;
+  private FixturePoolDto fixturePool;
   private String testName;
   private String method;
   private Map<String, String> postProcessor;
@@ -17,8 +21,10 @@ public class TestCaseDto {
   public static class VerifyDto {
     private int httpStatus;
     private String responseResourceType;
+    private String defaultAssertions;
     private Map<String, String> assertions;
     private Map<String, List<String>> dbAssertions;
+    private boolean streaming;
 
     /**
      * parameterized constructor.
@@ -27,8 +33,12 @@ public class TestCaseDto {
     public VerifyDto(@JsonProperty("responseResourceType") String responseResourceType,
         @JsonProperty("assertions") Map<String, String> assertions,
         @JsonProperty("httpStatus") int httpStatus,
-        @JsonProperty("dbAssertions") Map<String, List<String>> dbAssertions) {
+        @JsonProperty("dbAssertions") Map<String, List<String>> dbAssertions,
+        @JsonProperty("defaultAssertions") String defaultAssertions,
+        @JsonProperty("streaming") boolean streaming) {
       this.responseResourceType = responseResourceType;
+      this.defaultAssertions = defaultAssertions;
+      this.streaming = streaming;
       this.assertions = assertions;
       this.httpStatus = httpStatus;
       this.dbAssertions = dbAssertions;
@@ -38,6 +48,10 @@ public class TestCaseDto {
       return responseResourceType;
     }
 
+    public String getDefaultAssertions() {
+      return defaultAssertions;
+    }
+
     public Map<String, String> getAssertions() {
       return assertions;
     }
@@ -49,11 +63,16 @@ public class TestCaseDto {
     public Map<String, List<String>> getDbAssertions() {
       return dbAssertions;
     }
+
+    public boolean isStreaming() {
+      return streaming;
+    }
   }
 
   public static class RequestDto {
     private Map<String, String> requestModificationBody;
     private String requestResource;
+    private boolean bindRequestResource;
 
     /**
      * parameterized constructor.
@@ -61,9 +80,11 @@ public class TestCaseDto {
     @JsonCreator
     public RequestDto(
         @JsonProperty("requestModificationBody") Map<String, String> requestModificationBody,
-        @JsonProperty("requestResource") String requestResource) {
+        @JsonProperty("requestResource") String requestResource,
+        @JsonProperty("bindRequestResource") boolean bindRequestResource) {
       this.requestModificationBody = requestModificationBody;
       this.requestResource = requestResource;
+      this.bindRequestResource = bindRequestResource;
     }
 
     public Map<String, String> getRequestModificationBody() {
@@ -73,6 +94,40 @@ public class TestCaseDto {
     public String getRequestResource() {
       return requestResource;
     }
+
+    public boolean isBindRequestResource() {
+      return bindRequestResource;
+    }
+  }
+
+  public static class FixturePoolDto {
+    private int size;
+    private int producers;
+    private boolean reusable;
+
+    /**
+     * parameterized constructor.
+     */
+    @JsonCreator
+    public FixturePoolDto(@JsonProperty("size") int size,
+        @JsonProperty("producers") int producers,
+        @JsonProperty("reusable") boolean reusable) {
+      this.size = size;
+      this.producers = producers;
+      this.reusable = reusable;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public int getProducers() {
+      return producers;
+    }
+
+    public boolean isReusable() {
+      return reusable;
+    }
   }
 
   /**
@@ -83,9 +138,17 @@ public class TestCaseDto {
       @JsonProperty("prerequisite") List<String> prerequisite,
       @JsonProperty("testName") String testName, @JsonProperty("method") String method,
       @JsonProperty("postProcessor") Map<String, String> postProcessor,
-      @JsonProperty("verify") VerifyDto verify, @JsonProperty("request") RequestDto request) {
+      @JsonProperty("verify") VerifyDto verify, @JsonProperty("request") RequestDto request,
+      @JsonProperty("prerequisiteScope") String prerequisiteScope,
+      @JsonProperty("dataSource") String dataSource,
+      @JsonProperty("callPolicy") CallPolicy callPolicy,
+      @JsonProperty("fixturePool") FixturePoolDto fixturePool) {
     this.url = url;
     this.prerequisite = prerequisite;
+    this.prerequisiteScope = prerequisiteScope;
+    this.dataSource = dataSource;
+    this.callPolicy = callPolicy;
+    this.fixturePool = fixturePool;
     this.testName = testName;
     this.method = method;
     this.postProcessor = postProcessor;
@@ -101,6 +164,30 @@ public class TestCaseDto {
     return prerequisite;
   }
 
+  public String getPrerequisiteScope() {
+    return prerequisiteScope;
+  }
+
+  public String getDataSource() {
+    return dataSource;
+  }
+
+  /**
+   * function to get the deadline, retries and hedging of the calls of the test, null for the
+   * policy of its url.
+   */
+  public CallPolicy getCallPolicy() {
+    return callPolicy;
+  }
+
+  /**
+   * function to get the pool of a prerequisite file whose results are produced ahead of the tests,
+   * null when the file runs for the tests themselves.
+   */
+  public FixturePoolDto getFixturePool() {
+    return fixturePool;
+  }
+
   public String getTestName() {
     return testName;
   }
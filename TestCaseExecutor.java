@@ -3,21 +3,35 @@ import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
 import com.paysafe.ss.ledger.component.dto.TestCaseDto;
 import com.paysafe.ss.ledger.component.dto.TestCaseDto.VerifyDto;
 import com.paysafe.ss.ledger.component.restClient.ApiResourceRestClient;
-import com.paysafe.ss.ledger.component.verify.VerifyAnnotation;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.jayway.jsonpath.JsonPath;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Parse Test Cases from JSON file.
@@ -30,9 +44,19 @@ public class TestCaseExecutor {
 
   private ApiResourceRestClient apiRestClient;
   private Map<String, Class<?>> classMap;
-  private Map<String, TestCaseDto> testCaseMap;
+  private TestSuiteFile testSuite;
+  private PrerequisiteGraph prerequisiteGraph;
   private DbQueries dbQueries;
   private String authToken;
+  private final SuiteIndex suiteIndex;
+  private volatile Map<String, Map<String, String>> dbValidations;
+  private volatile Map<String, CallPolicy> callPolicies;
+  private final Map<String, List<DbQuery>> dbValidationQueries = new ConcurrentHashMap<>();
+  private final VariableContext suiteContext = new VariableContext(null);
+  private final PhaseMetrics phaseMetrics = new PhaseMetrics();
+  private volatile ResultReporter resultReporter;
+  private final TestCache testCache = TestCache.OFF.equals(TestDataConstants.INCREMENTAL_MODE) ? TestCache.empty()
+      : TestCache.load(Paths.get(TestDataConstants.TEST_CACHE_PATH));
 
   /**
    * Initialize the parser through component test.
@@ -42,65 +66,473 @@ public class TestCaseExecutor {
    */
 
   public TestCaseExecutor(ApiResourceRestClient apiRestClient, Map<String, Class<?>> classMap, DbQueries dbQueries) {
+    this(apiRestClient, classMap, dbQueries, SuiteIndex.load(TestDataConstants.TESTCASE_FILE_PATH,
+        TestDataConstants.REQUEST_RESOURCE_PATH, TestDataConstants.RESOURCE_FILE_PATH));
+  }
+
+  /**
+   * Initialize the parser with an already loaded suite index.
+   * 
+   * @param apiRestClient apiRestClient
+   * @param classMap classMap
+   * @param suiteIndex suiteIndex
+   */
+
+  public TestCaseExecutor(ApiResourceRestClient apiRestClient, Map<String, Class<?>> classMap, DbQueries dbQueries,
+      SuiteIndex suiteIndex) {
     this.apiRestClient = apiRestClient;
     this.classMap = classMap;
     this.dbQueries = dbQueries;
+    this.suiteIndex = suiteIndex;
+    if (Objects.nonNull(classMap)) {
+      ObjectCodecs.precompile(classMap.values());
+    }
   }
 
   /**
-   * function to parse test case file.
+   * function to parse test case file, a json array of test cases or a jsonl file. Only the names
+   * are read up front, a test case is read when it runs.
    * 
    * @param fileName fileName.
    */
 
   public void parseTestCase(String fileName) {
-    List<TestCaseDto> testCases =
-        Arrays.asList(readFile(TestDataConstants.TESTCASE_FILE_PATH + fileName, TestCaseDto[].class));
-    testCaseMap = new HashMap<>();
-    for (TestCaseDto testCase : testCases) {
-      testCaseMap.put(testCase.getTestName(), testCase);
+    testSuite = TestSuiteFile.open(Paths.get(TestDataConstants.TESTCASE_FILE_PATH + fileName), suiteContext);
+    prerequisiteGraph = new PrerequisiteGraph(suiteContext, this::runPrerequisiteStep, this::getFixturePoolSpec);
+  }
+
+  /**
+   * function to start producing the fixtures of the poolable prerequisites of the given tests, so
+   * they are ready when the tests start.
+   *
+   * @param testNames testNames
+   */
+  public void startFixturePools(Collection<String> testNames) {
+    List<TestCaseDto> testCases = new ArrayList<>(testNames.size());
+    for (String testName : testNames) {
+      testCases.add(testSuite.get(testName));
     }
+    prerequisiteGraph.startPools(testCases);
+  }
+
+  /**
+   * function to get the fixture pools of the suite, with their hit and miss counts.
+   */
+  public List<FixturePool> getFixturePools() {
+    return prerequisiteGraph.getPools();
+  }
+
+  /**
+   * function to stop the fixture producers of the suite.
+   */
+  public void closeFixturePools() {
+    prerequisiteGraph.closePools();
+  }
+
+  /**
+   * function to get the names of the parsed test cases.
+   */
+
+  public Set<String> getTestNames() {
+    return testSuite.getTestNames();
+  }
+
+  /**
+   * function to get a parsed test case.
+   *
+   * @param testName testName
+   * @return the test case, null when the suite has no such test.
+   */
+  public TestCaseDto getTestCase(String testName) {
+    return testSuite.get(testName);
   }
 
   /**
-   * function to run test case.
+   * function to assign a suite level variable, visible to every test unless the test overrides it.
+   * 
+   * @param var var.
+   * @param value value.
+   */
+
+  public void setSuiteVariable(String var, String value) {
+    suiteContext.put(var, value);
+  }
+
+  /**
+   * function to run test case in its own variable scope. Safe to call concurrently.
    * 
    * @param testName testName.
    */
 
-  public <T> void runTestCase(String testName) {
-    TestCaseDto testCase = testCaseMap.get(testName);
-    if (Objects.nonNull(testCase)) {
-      runPrerequisiteSteps(testCase.getPrerequisite());
-      Object requestResource = getRequestObject(testCase.getRequest());
-      String method = testCase.getMethod();
-      VerifyDto verify = testCase.getVerify();
-      Map<String, Object> queryParams = null;
-      Map<String, String> pathParams = null;
-      T responseObj = execute(method, testCase.getUrl(), requestResource, getResponseResourceType(verify), queryParams,
-          pathParams, authToken);
-      if (Objects.nonNull(verify)) {
-        runDefaultAssertions(verify.getDefaultAssertions(), responseObj);
-        verifyObject(verify.getResponseAssertions(), flatMap("$", responseObj));
-        runDbAssertions(verify.getDbAssertions(), responseObj);
+  public void runTestCase(String testName) {
+    try {
+      runTestCaseAsync(testName, Runnable::run).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
-      runPostProcessor(testCase.getPostProcessor(), responseObj);
-    } else {
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * function to run test case once its prerequisites are resolved. Prerequisite chains shared with
+   * other tests of the suite run once, and the test is cancelled as soon as one of them fails. A
+   * test with a dataSource runs once per row, each row reported as testName[row].
+   * 
+   * @param testName testName.
+   * @param executor executor running the prerequisite steps and the test.
+   */
+
+  public CompletableFuture<Void> runTestCaseAsync(String testName, Executor executor) {
+    TestCaseDto testCase = testSuite.get(testName);
+    if (Objects.isNull(testCase)) {
+      return CompletableFuture.failedFuture(
+          InternalErrorException.builder().internalError().detail("Test case is not present in the file").build());
+    }
+    List<FixturePool.Lease> leases = new CopyOnWriteArrayList<>();
+    if (Objects.nonNull(testSuite.getDataSourcePath(testName))) {
+      return prerequisiteGraph.resolve(testCase, executor, leases::add)
+          .thenComposeAsync(prerequisites -> runRows(testCase, prerequisites, executor), executor)
+          .whenComplete((result, e) -> {
+            release(leases, e);
+            testCache.complete(testName, Objects.isNull(e));
+          });
+    }
+    long startMillis = System.currentTimeMillis();
+    long start = System.nanoTime();
+    AtomicReference<AssertionEngine> assertions = new AtomicReference<>();
+    return prerequisiteGraph.resolve(testCase, executor, leases::add)
+        .thenAcceptAsync(prerequisites -> new VariableContext(prerequisites)
+            .bind(() -> executeTestCase(testCase, assertions)), executor)
+        .whenComplete((result, e) -> {
+          release(leases, e);
+          testCache.complete(testName, Objects.isNull(e));
+          report(testName, testCase, startMillis, System.nanoTime() - start, assertions.get(), e);
+        });
+  }
+
+  /**
+   * A fixture goes back to its pool only when the test passed, a failed test may have left it in
+   * any state.
+   */
+  private static void release(List<FixturePool.Lease> leases, Throwable failure) {
+    for (FixturePool.Lease lease : leases) {
+      lease.release(Objects.isNull(failure));
+    }
+  }
+
+  /**
+   * Run every row of a data driven test. jsonTest.dataSource.parallelism workers pull the rows from
+   * the data source, so only the rows in flight are read and templated. The workers default to a
+   * quarter of the runner pool, so a data driven test leaves threads to the other tests. Every row
+   * runs, the test fails when any row failed.
+   */
+  private CompletableFuture<Void> runRows(TestCaseDto testCase, VariableContext prerequisites, Executor executor) {
+    String testName = testCase.getTestName();
+    DataSource rows = DataSource.open(testSuite.getDataSourcePath(testName));
+    AtomicInteger failed = new AtomicInteger();
+    AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.max(1, TestDataConstants.DATA_SOURCE_PARALLELISM)];
+    for (int i = 0; i < workers.length; i++) {
+      workers[i] = CompletableFuture.runAsync(() -> {
+        DataSource.Row row;
+        while ((row = rows.next()) != null) {
+          VariableContext rowContext = new VariableContext(prerequisites);
+          rowContext.putAll(row.getFields());
+          long startMillis = System.currentTimeMillis();
+          long start = System.nanoTime();
+          AtomicReference<AssertionEngine> assertions = new AtomicReference<>();
+          Throwable failure = null;
+          try {
+            TestCaseDto rowCase = testSuite.getRow(testName, row, prerequisites);
+            rowContext.bind(() -> executeTestCase(rowCase, assertions));
+          } catch (RuntimeException | Error e) {
+            failure = e;
+            failed.incrementAndGet();
+            firstFailure.compareAndSet(null, e);
+          }
+          report(testName + "[" + row.getNumber() + "]", testCase, startMillis, System.nanoTime() - start,
+              assertions.get(), failure);
+        }
+      }, executor);
+    }
+    return CompletableFuture.allOf(workers).whenComplete((result, e) -> rows.close()).thenRun(() -> {
+      if (failed.get() > 0) {
+        throw InternalErrorException.builder().internalError().cause(firstFailure.get())
+            .detail(failed.get() + " of " + rows.getRowCount() + " rows of " + testName + " failed").build();
+      }
+    });
+  }
+
+  /**
+   * function to publish the results of every test run from now on.
+   * 
+   * @param resultReporter reporter, null to stop reporting.
+   */
+
+  public void setResultReporter(ResultReporter resultReporter) {
+    this.resultReporter = resultReporter;
+  }
+
+  public ResultReporter getResultReporter() {
+    return resultReporter;
+  }
+
+  /**
+   * function to select the tests to run. Every test runs unless jsonTest.incremental is SKIP or
+   * DEPRIORITIZE: a test that passed before and whose fingerprint is unchanged is then skipped, and
+   * reported as skipped, or run last. Set jsonTest.incremental.force to run every test.
+   *
+   * @param testNames testNames
+   * @return the tests to run, in order.
+   */
+  public List<String> selectTests(Collection<String> testNames) {
+    String mode = TestDataConstants.INCREMENTAL_MODE;
+    List<String> selected = new ArrayList<>(testNames.size());
+    if (TestCache.OFF.equals(mode)) {
+      selected.addAll(testNames);
+      return selected;
+    }
+    List<String> unchanged = new ArrayList<>();
+    for (String testName : testNames) {
+      String fingerprint = fingerprint(testName);
+      if (!TestDataConstants.INCREMENTAL_FORCE && testCache.isUpToDate(testName, fingerprint)) {
+        unchanged.add(testName);
+        if (TestCache.DEPRIORITIZE.equals(mode)) {
+          testCache.expect(testName, fingerprint);
+        } else {
+          reportSkipped(testName);
+        }
+      } else {
+        testCache.expect(testName, fingerprint);
+        selected.add(testName);
+      }
+    }
+    if (TestCache.DEPRIORITIZE.equals(mode)) {
+      selected.addAll(unchanged);
+    }
+    return selected;
+  }
+
+  private void reportSkipped(String testName) {
+    ResultReporter reporter = resultReporter;
+    if (Objects.nonNull(reporter)) {
+      JsonNode raw = readRaw(testName);
+      reporter.publish(TestResult.skipped(testName, raw.path("method").asText(null), raw.path("url").asText(null)));
+    }
+  }
+
+  /**
+   * function to write the fingerprints of the tests that passed, for the next run to skip them.
+   * Nothing is written when jsonTest.incremental is OFF.
+   */
+  public void saveTestCache() {
+    if (TestCache.OFF.equals(TestDataConstants.INCREMENTAL_MODE)) {
+      return;
+    }
+    testCache.save();
+  }
+
+  /**
+   * function to fingerprint a test from everything it reads: the test case, its prerequisite files,
+   * the request resource and default assertions of the test and of each prerequisite, its db
+   * validations, the call policies, and the base url and http mode it runs against. The files are
+   * found from the test case as it is in the file, so the test is not templated.
+   *
+   * @param testName testName
+   */
+  public String fingerprint(String testName) {
+    byte[] rawBytes = testSuite.getRaw(testName);
+    if (Objects.isNull(rawBytes)) {
       throw InternalErrorException.builder().internalError().detail("Test case is not present in the file").build();
     }
+    JsonNode testCase = readRaw(testName);
+    MessageDigest digest = sha256();
+    update(digest, rawBytes);
+    update(digest, String.valueOf(apiRestClient.getBaseUrl()));
+    update(digest, TestDataConstants.HTTP_MODE);
+    update(digest, fileHash(TestDataConstants.CALL_POLICY_PATH));
+    for (JsonNode fileName : testCase.path("prerequisite")) {
+      String path = TestDataConstants.TESTCASE_FILE_PATH + fileName.asText();
+      update(digest, fileHash(path));
+      JsonNode prerequisite = readRawTree(path);
+      update(digest, fileHash(TestDataConstants.REQUEST_RESOURCE_PATH
+          + prerequisite.path("request").path("requestResource").asText()));
+      update(digest, fileHash(TestDataConstants.RESPONSE_RESOURCE_PATH
+          + prerequisite.path("verify").path("defaultAssertions").asText()));
+    }
+    Path dataSource = testSuite.getDataSourcePath(testName);
+    if (Objects.nonNull(dataSource)) {
+      update(digest, fileHash(dataSource.toString()));
+    }
+    JsonNode requestResource = testCase.path("request").path("requestResource");
+    if (requestResource.isTextual()) {
+      update(digest, fileHash(TestDataConstants.REQUEST_RESOURCE_PATH + requestResource.asText()));
+    }
+    JsonNode verify = testCase.path("verify");
+    if (verify.path("defaultAssertions").isTextual()) {
+      update(digest, fileHash(TestDataConstants.RESPONSE_RESOURCE_PATH + verify.path("defaultAssertions").asText()));
+    }
+    if (verify.path("dbAssertions").isObject()) {
+      Map<String, Map<String, String>> validations = readDbValidations();
+      Iterator<String> names = verify.path("dbAssertions").fieldNames();
+      while (names.hasNext()) {
+        String validation = names.next();
+        update(digest, validation + "=" + validations.get(validation));
+      }
+    }
+    return hex(digest.digest());
+  }
+
+  /**
+   * Read a test case of the suite as it is in the file, before templating.
+   */
+  private JsonNode readRaw(String testName) {
+    byte[] raw = testSuite.getRaw(testName);
+    try {
+      return Objects.isNull(raw) ? MissingNode.getInstance() : TestDataConstants.MAPPER.readTree(raw);
+    } catch (IOException e) {
+      return MissingNode.getInstance();
+    }
+  }
+
+  private String fileHash(String fileUrl) {
+    if (suiteIndex.contains(fileUrl)) {
+      return suiteIndex.get(fileUrl).getContentHash();
+    }
+    Path path = Paths.get(fileUrl);
+    if (!Files.isRegularFile(path)) {
+      return "missing";
+    }
+    try {
+      MessageDigest digest = sha256();
+      update(digest, Files.readAllBytes(path));
+      return hex(digest.digest());
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e).detail("Exception occurred while reading file")
+          .build();
+    }
+  }
+
+  /**
+   * Read a file before templating, only to find the files it refers to.
+   */
+  private JsonNode readRawTree(String fileUrl) {
+    try {
+      JsonNode tree = suiteIndex.contains(fileUrl) ? suiteIndex.get(fileUrl).getTree()
+          : TestDataConstants.MAPPER.readTree(Paths.get(fileUrl).toFile());
+      return Objects.isNull(tree) ? MissingNode.getInstance() : tree;
+    } catch (IOException e) {
+      return MissingNode.getInstance();
+    }
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    update(digest, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void update(MessageDigest digest, byte[] bytes) {
+    digest.update(bytes);
+    digest.update((byte) 0);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void report(String testName, TestCaseDto testCase, long startMillis, long durationNanos,
+      AssertionEngine assertions, Throwable failure) {
+    ResultReporter reporter = resultReporter;
+    if (Objects.isNull(reporter)) {
+      return;
+    }
+    Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause()
+        : failure;
+    reporter.publish(new TestResult(testName, testCase.getMethod(), testCase.getUrl(), startMillis,
+        durationNanos, cause, Objects.isNull(assertions) ? null : assertions.getResults()));
+  }
+
+  private void executeTestCase(TestCaseDto testCase, AtomicReference<AssertionEngine> engineHolder) {
+    PhaseMetrics.Tags tags = PhaseMetrics.tags(testCase.getTestName(), testCase.getMethod(), testCase.getUrl());
+    byte[] requestBody = getRequestBody(testCase.getRequest(), tags);
+    String method = testCase.getMethod();
+    VerifyDto verify = testCase.getVerify();
+    Map<String, Object> queryParams = null;
+    Map<String, String> pathParams = null;
+    CallPolicy policy = getCallPolicy(testCase);
+    AssertionEngine assertions;
+    if (Objects.nonNull(verify) && verify.isStreaming()) {
+      if (policy.isActive()) {
+        // retries and hedges need the whole response of every attempt, nothing would be streamed
+        throw InternalErrorException.builder().internalError()
+            .detail("Streaming verify of " + testCase.getTestName() + " cannot be combined with a call policy").build();
+      }
+      Set<String> paths = getStreamingPaths(testCase);
+      assertions = phaseMetrics.time(PhaseMetrics.Phase.HTTP, tags,
+          () -> execute(method, testCase.getUrl(), requestBody, queryParams, pathParams, authToken, policy,
+              (status, body) -> {
+                verifyStatus(verify, status);
+                return StreamingAssertionEngine.parse(body, paths);
+              }));
+    } else {
+      ApiResponse response = phaseMetrics.time(PhaseMetrics.Phase.HTTP, tags,
+          () -> execute(method, testCase.getUrl(), requestBody, queryParams, pathParams, authToken, policy,
+              ApiResourceRestClient.BUFFERED_RESPONSE));
+      verifyStatus(verify, response.getStatus());
+      assertions = parseResponse(response, verify, tags);
+    }
+    engineHolder.set(assertions);
+    if (Objects.nonNull(verify)) {
+      AssertionEngine engine = assertions;
+      phaseMetrics.time(PhaseMetrics.Phase.ASSERTIONS, tags, () -> {
+        runDefaultAssertions(verify.getDefaultAssertions(), engine);
+        runResponseAssertions(verify.getAssertions(), engine);
+      });
+      if (Objects.nonNull(verify.getDbAssertions())) {
+        phaseMetrics.time(PhaseMetrics.Phase.DB_ASSERTIONS, tags,
+            () -> runDbAssertions(verify.getDbAssertions(), engine));
+      }
+    }
+    runPostProcessor(testCase.getPostProcessor(), assertions, tags);
+  }
+
+  /**
+   * function to get the phase timings of the tests run by this executor.
+   */
+  public PhaseMetrics getPhaseMetrics() {
+    return phaseMetrics;
   }
 
   /**
-   * function to read file
+   * function to read file, served from the suite index when the file is indexed.
    * 
    * @param fileUrl fileUrl.
    * @param type type.
    */
 
   public <T> T readFile(String fileUrl, Class<T> type) {
+    if (suiteIndex.contains(fileUrl)) {
+      return suiteIndex.read(fileUrl, type);
+    }
     try {
       String jsonString = readjsonFile(fileUrl);
-      jsonString = RegExParser.regexParser(jsonString);
+      jsonString = RegExParser.regexParser(fileUrl, jsonString);
       return TestDataConstants.MAPPER.readValue(jsonString, type);
     } catch (IOException e) {
       throw InternalErrorException.builder().internalError().cause(e).detail("Exception occurred while reading file")
@@ -118,179 +550,323 @@ public class TestCaseExecutor {
     this.authToken = authToken;
   }
 
-  private <T> T execute(String method, String url, Object requestResource, Class<T> responseResourceType,
-      Map<String, Object> queryParams, Map<String, String> pathParams, String auth) {
-
+  private <R> R execute(String method, String url, byte[] requestBody, Map<String, Object> queryParams,
+      Map<String, String> pathParams, String auth, CallPolicy policy,
+      ApiResourceRestClient.ResponseHandler<R> handler) {
+    final RequestSpec.Builder request =
+        RequestSpec.builder(method, url).queryParams(queryParams).pathParams(pathParams).auth(auth).policy(policy);
     switch (method) {
     case "GET":
-      return apiRestClient.getResourceRestClient(url, queryParams, pathParams, responseResourceType, auth);
+    case "DELETE":
+      return apiRestClient.exchange(request.build(), handler);
     case "POST":
-      return apiRestClient.postResourceRestClient(url, queryParams, pathParams, requestResource, responseResourceType,
-          auth);
     case "PUT":
-      return apiRestClient.putResourceRestClient(url, queryParams, pathParams, requestResource, auth);
-    case "DELETE":
-      apiRestClient.deleteResourceRestClient(url, queryParams, pathParams, auth);
-      return null;
     case "PATCH":
-      return apiRestClient.patchResourceRestClient(url, queryParams, pathParams, requestResource, responseResourceType,
-          auth);
+      return apiRestClient.exchange(request.body(requestBody).build(), handler);
     default:
       throw new RuntimeException("invalid method");
     }
   }
 
-  private <T> T getResponseResourceType(TestCaseDto.VerifyDto verify) {
-    return (T) classMap.get(verify.getResponseResourceType());
+  private void verifyStatus(TestCaseDto.VerifyDto verify, int status) {
+    if (Objects.nonNull(verify) && verify.getHttpStatus() != 0) {
+      VerifyUtil.verifyEquals("httpStatus", verify.getHttpStatus(), status);
+    } else if (status >= 400) {
+      throw InternalErrorException.builder().internalError().detail("Request failed with status " + status).build();
+    }
   }
 
-  private Object getRequestObject(TestCaseDto.RequestDto request) {
-
-    Map<String, String> requestBodyMap = request.getRequestModificationBody();
-    String requestResource = request.getRequestResource();
-    Object requestObj =
-        readFile(TestDataConstants.REQUEST_RESOURCE_PATH + requestResource, classMap.get(requestResource));
-    if (requestBodyMap == null) {
-      return requestObj;
+  /**
+   * Collect every path a streaming test reads, so the response is read in a single pass.
+   */
+  private Set<String> getStreamingPaths(TestCaseDto testCase) {
+    Set<String> paths = new HashSet<>();
+    VerifyDto verify = testCase.getVerify();
+    if (Objects.nonNull(verify.getAssertions())) {
+      paths.addAll(verify.getAssertions().keySet());
+    }
+    if (Objects.nonNull(verify.getDefaultAssertions())) {
+      paths.addAll(readDefaultAssertions(verify.getDefaultAssertions()).keySet());
+    }
+    if (Objects.nonNull(verify.getDbAssertions())) {
+      Map<String, Map<String, String>> dbValidations = readDbValidations();
+      for (String validation : verify.getDbAssertions().keySet()) {
+        for (String query : dbValidations.get(validation).keySet()) {
+          paths.addAll(CompiledTemplate.cachedQuery(query).getJsonPaths());
+        }
+      }
+    }
+    if (Objects.nonNull(testCase.getPostProcessor())) {
+      for (String value : testCase.getPostProcessor().values()) {
+        if (value.contains("$")) {
+          paths.add(value);
+        }
+      }
     }
+    return paths;
+  }
 
-    for (Map.Entry<String, String> entry : requestBodyMap.entrySet()) {
-      requestObj = JsonPath.parse(convertObjectToJsonString(requestObj)).set(entry.getKey(), entry.getValue()).json();
+  /**
+   * Bind the parsed response to its resource type, which fails when the response does not match it.
+   * Assertions read the tree, so tests without a type and runs with jsonTest.response.bind=false
+   * are not bound at all.
+   */
+  private <T> T bindResponse(JsonNode response, Class<T> responseResourceType) {
+    if (!TestDataConstants.RESPONSE_BINDING || Objects.isNull(responseResourceType) || response.isMissingNode()) {
+      return null;
     }
-    return requestObj;
+    try {
+      return ObjectCodecs.reader(responseResourceType).readValue(response);
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while reading response").build();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Class<T> getResponseResourceType(TestCaseDto.VerifyDto verify) {
+    return Objects.isNull(verify) ? null : (Class<T>) classMap.get(verify.getResponseResourceType());
   }
 
-  private Map<String, String> flatMap(String parentKey, Object valueToConvert) {
-    Map<String, Object> objectMap =
-        TestDataConstants.MAPPER.convertValue(valueToConvert, TestDataConstants.MAP_TYPE_REFERENCE);
-    String prefixKey = parentKey != null ? parentKey + "." : "";
-    HashMap<String, String> flatmap = new HashMap<>();
-    for (Map.Entry<String, Object> entry : objectMap.entrySet()) {
-      if (entry.getValue() instanceof String) {
-        flatmap.put((prefixKey + entry.getKey()), (String) entry.getValue());
+  /**
+   * Build the request body on one tree: every modification is applied through its compiled
+   * JsonPath and the tree is written straight to bytes. The request resource is bound to its
+   * class only when the test asks for it.
+   */
+  private byte[] getRequestBody(TestCaseDto.RequestDto request, PhaseMetrics.Tags tags) {
+    if (Objects.isNull(request)) {
+      return null;
+    }
+    Map<String, String> requestBodyMap = request.getRequestModificationBody();
+    String requestResource = request.getRequestResource();
+    JsonNode requestTree = phaseMetrics.time(PhaseMetrics.Phase.TEMPLATING, tags, () -> modifyRequestTree(
+        readTree(TestDataConstants.REQUEST_RESOURCE_PATH + requestResource, Objects.nonNull(requestBodyMap)),
+        requestBodyMap));
+    return phaseMetrics.time(PhaseMetrics.Phase.SERIALIZATION, tags, () -> {
+      try {
+        return writeRequestBody(requestTree, request.isBindRequestResource() ? classMap.get(requestResource) : null);
+      } catch (IOException e) {
+        throw InternalErrorException.builder().internalError().cause(e)
+            .detail("Exception occurred while converting object to json").build();
       }
-      if (entry.getValue() instanceof Map) {
-        flatmap.putAll(flatMap(prefixKey + entry.getKey(), (Map<String, Object>) entry.getValue()));
+    });
+  }
+
+  /**
+   * function to apply the requestModificationBody entries to a rendered request tree, each through
+   * its compiled JsonPath.
+   *
+   * @param tree tree, a copy when there are modifications.
+   * @param requestModificationBody modifications by path, may be null.
+   */
+  public static JsonNode modifyRequestTree(JsonNode tree, Map<String, String> requestModificationBody) {
+    if (Objects.nonNull(requestModificationBody)) {
+      for (Map.Entry<String, String> entry : requestModificationBody.entrySet()) {
+        JsonPaths.compile(entry.getKey()).set(tree, entry.getValue(), TestDataConstants.JSON_NODE_CONFIGURATION);
       }
     }
-    return flatmap;
+    return tree;
   }
 
-  private void verifyObject(Map<String, String> expected, Map<String, String> actual) {
-    for (final Map.Entry<String, String> entry : expected.entrySet()) {
-      String expectedResponse = entry.getValue();
-      String actualResponse = actual.get(entry.getKey());
-      VerifyUtil.verifyEquals(entry.getKey(), expectedResponse, actualResponse);
-
+  /**
+   * function to write a request tree to bytes, bound to the request class first when one is given.
+   *
+   * @param tree tree
+   * @param requestType class the request resource is bound to, null to write the tree as it is.
+   */
+  public static byte[] writeRequestBody(JsonNode tree, Class<?> requestType) throws IOException {
+    if (Objects.isNull(requestType)) {
+      return TestDataConstants.MAPPER.writeValueAsBytes(tree);
     }
+    return ObjectCodecs.writer(requestType).writeValueAsBytes(ObjectCodecs.reader(requestType).readValue(tree));
   }
 
-  private <T> void runPrerequisiteSteps(List<String> steps) {
-    if (Objects.isNull(steps)) {
+  private void runResponseAssertions(Map<String, String> expected, AssertionEngine assertions) {
+    if (Objects.isNull(expected)) {
       return;
     }
-    for (String fileName : steps) {
-      TestCaseDto testCase = readFile(TestDataConstants.TESTCASE_FILE_PATH + fileName, TestCaseDto.class);
-      String url = testCase.getUrl();
-      Object requestResource = (testCase.getRequest() != null) ? getRequestObject(testCase.getRequest()) : null;
-      String method = testCase.getMethod();
-      TestCaseDto.VerifyDto verify = testCase.getVerify();
-      Map<String, Object> queryParams = null;
-      Map<String, String> pathParams = null;
-      T responseObj =
-          execute(method, url, requestResource, getResponseResourceType(verify), queryParams, pathParams, authToken);
-      runPostProcessor(testCase.getPostProcessor(), responseObj);
+    for (final Map.Entry<String, String> entry : expected.entrySet()) {
+      assertions.verifyEquals(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private TestCaseDto.FixturePoolDto getFixturePoolSpec(String fileName) {
+    TestCaseDto[] prerequisite = new TestCaseDto[1];
+    try {
+      suiteContext.bind(() -> prerequisite[0] = readFile(TestDataConstants.TESTCASE_FILE_PATH + fileName,
+          TestCaseDto.class));
+    } catch (RuntimeException e) {
+      // the step reports the error when it runs
+      return null;
     }
+    return prerequisite[0].getFixturePool();
+  }
+
+  private void runPrerequisiteStep(String fileName) {
+    String path = TestDataConstants.TESTCASE_FILE_PATH + fileName;
+    TestCaseDto testCase = phaseMetrics.time(PhaseMetrics.Phase.FILE_READ,
+        PhaseMetrics.tags(fileName, null, null), () -> readFile(path, TestCaseDto.class));
+    String url = testCase.getUrl();
+    String method = testCase.getMethod();
+    PhaseMetrics.Tags tags =
+        PhaseMetrics.tags(Objects.nonNull(testCase.getTestName()) ? testCase.getTestName() : fileName, method, url);
+    byte[] requestBody = getRequestBody(testCase.getRequest(), tags);
+    TestCaseDto.VerifyDto verify = testCase.getVerify();
+    Map<String, Object> queryParams = null;
+    Map<String, String> pathParams = null;
+    ApiResponse response = phaseMetrics.time(PhaseMetrics.Phase.HTTP, tags,
+        () -> execute(method, url, requestBody, queryParams, pathParams, authToken, getCallPolicy(testCase),
+            ApiResourceRestClient.BUFFERED_RESPONSE));
+    verifyStatus(verify, response.getStatus());
+    AssertionEngine assertions = parseResponse(response, verify, tags);
+    runPostProcessor(testCase.getPostProcessor(), assertions, tags);
+  }
+
+  private AssertionEngine parseResponse(ApiResponse response, TestCaseDto.VerifyDto verify, PhaseMetrics.Tags tags) {
+    return phaseMetrics.time(PhaseMetrics.Phase.RESPONSE_PARSE, tags, () -> {
+      AssertionEngine assertions = AssertionEngine.of(response);
+      bindResponse(assertions.getResponse(), getResponseResourceType(verify));
+      return assertions;
+    });
   }
 
-  private void runPostProcessor(Map<String, String> postProcessor, Object response) {
+  private void runPostProcessor(Map<String, String> postProcessor, AssertionEngine assertions,
+      PhaseMetrics.Tags tags) {
     if (Objects.isNull(postProcessor)) {
       return;
     }
-    for (Map.Entry<String, String> entry : postProcessor.entrySet()) {
-      if (entry.getValue().contains("$")) {
-        String responseValue = flatMap("$", response).get(entry.getValue());
-        RegExParser.assignValue(entry.getKey(), responseValue);
-      } else {
-        RegExParser.assignValue(entry.getKey(), entry.getValue());
+    phaseMetrics.time(PhaseMetrics.Phase.POST_PROCESSING, tags, () -> {
+      for (Map.Entry<String, String> entry : postProcessor.entrySet()) {
+        if (entry.getValue().contains("$")) {
+          String responseValue = assertions.extract(entry.getValue());
+          RegExParser.assignValue(entry.getKey(), responseValue);
+        } else {
+          RegExParser.assignValue(entry.getKey(), entry.getValue());
+        }
       }
-    }
+    });
   }
 
-  private void runDbAssertions(Map<String, List<String>> dbAssertions, Object responseObj) {
-    Map<String, Map<String, String>> map;
-    try {
-      String jsonString = readjsonFile(TestDataConstants.DB_VALIDATION_PATH);
-      map = TestDataConstants.MAPPER.readValue(jsonString, new TypeReference<Map<String, Map<String, String>>>() {
-      });
-    } catch (IOException e) {
-      throw InternalErrorException.builder().internalError().cause(e).detail("Exception occurred while reading file")
-          .build();
+  private void runDbAssertions(Map<String, List<String>> dbAssertions, AssertionEngine assertions) {
+    if (Objects.isNull(dbAssertions)) {
+      return;
     }
+    List<String> names = new ArrayList<>();
+    List<String> expectedValues = new ArrayList<>();
+    List<DbQuery.Bound> queries = new ArrayList<>();
     for (Map.Entry<String, List<String>> entry : dbAssertions.entrySet()) {
       List<String> expectedValue = entry.getValue();
       int i = 0;
-      for (Map.Entry<String, String> dbAssertion : map.get(entry.getKey()).entrySet()) {
-        String query = RegExParser.setQueryParameterswithResponseValues(dbAssertion.getKey(),
-            convertObjectToJsonString(responseObj));
-        Object dbValue = dbQueries.executeSelectQuery(query);
-        VerifyUtil.verifyEquals(TestDataConstants.VERIFICATION_FAILED, expectedValue.get(i++), dbValue);
+      for (DbQuery dbQuery : getDbValidation(entry.getKey())) {
+        names.add(entry.getKey());
+        expectedValues.add(expectedValue.get(i++));
+        queries.add(dbQuery.bind(assertions::read));
       }
     }
+    List<DbQueryResult> results = dbQueries.executeSelectQueries(queries);
+    for (int i = 0; i < results.size(); i++) {
+      assertions.verifyQueryResult(names.get(i), expectedValues.get(i), results.get(i));
+    }
   }
 
-  private void runDefaultAssertions(String jsonFile, Object responseObj) {
+  private void runDefaultAssertions(String jsonFile, AssertionEngine assertions) {
     if (Objects.isNull(jsonFile)) {
       return;
     }
-    Map<String, String> map;
-    String jsonString = readjsonFile(TestDataConstants.RESPONSE_RESOURCE_PATH + jsonFile);
-    try {
-      map = TestDataConstants.MAPPER.readValue(jsonString, new TypeReference<Map<String, String>>() {
-      });
-      for (Map.Entry<String, String> entry : map.entrySet()) {
-        Object responseValue = JsonPath.parse(convertObjectToJsonString(responseObj)).read(entry.getKey());
-        if (entry.getValue().contains("@")) {
-          verifyValidationAnnotation(responseValue, entry.getValue());
-        } else {
-          VerifyUtil.verifyEquals(entry.getKey(), entry.getValue(), responseValue);
-        }
+    Map<String, String> map = readDefaultAssertions(jsonFile);
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      if (entry.getValue().contains("@")) {
+        assertions.verifyAnnotation(entry.getKey(), entry.getValue());
+      } else {
+        assertions.verifyEquals(entry.getKey(), entry.getValue());
       }
-    } catch (IOException e) {
-      throw InternalErrorException.builder().internalError().cause(e)
-          .detail("Exception occurred while converting into map").build();
     }
   }
 
-  private String convertObjectToJsonString(Object object) {
-    try {
-      return TestDataConstants.MAPPER.writeValueAsString(object);
-    } catch (JsonProcessingException e) {
-      throw InternalErrorException.builder().internalError().cause(e)
-          .detail("Exception occurred while converting object to json").build();
+  private List<DbQuery> getDbValidation(String key) {
+    return dbValidationQueries.computeIfAbsent(key, validation -> {
+      Map<String, String> queries = readDbValidations().get(validation);
+      if (queries == null) {
+        throw InternalErrorException.builder().internalError().detail("Db validation " + validation + " is not defined")
+            .build();
+      }
+      return DbQuery.compileAll(validation, queries);
+    });
+  }
+
+  /**
+   * The policy of the longest url prefix of callPolicies.json, overridden by the callPolicy of the
+   * test.
+   */
+  private CallPolicy getCallPolicy(TestCaseDto testCase) {
+    Map<String, CallPolicy> policies = callPolicies;
+    if (policies == null) {
+      policies = Files.isRegularFile(Paths.get(TestDataConstants.CALL_POLICY_PATH))
+          ? Collections.unmodifiableMap(readJsonValue(TestDataConstants.CALL_POLICY_PATH,
+              new TypeReference<Map<String, CallPolicy>>() {
+              }))
+          : Collections.emptyMap();
+      callPolicies = policies;
+    }
+    CallPolicy policy = CallPolicy.NONE;
+    String matched = "";
+    String url = Objects.toString(testCase.getUrl(), "");
+    for (Map.Entry<String, CallPolicy> entry : policies.entrySet()) {
+      if (url.startsWith(entry.getKey()) && entry.getKey().length() >= matched.length()) {
+        matched = entry.getKey();
+        policy = entry.getValue();
+      }
     }
+    return policy.with(testCase.getCallPolicy());
   }
 
-  private String readjsonFile(String jsonFile) {
+  private Map<String, Map<String, String>> readDbValidations() {
+    Map<String, Map<String, String>> validations = dbValidations;
+    if (validations == null) {
+      validations = Collections.unmodifiableMap(readJsonValue(TestDataConstants.DB_VALIDATION_PATH,
+          new TypeReference<Map<String, Map<String, String>>>() {
+          }));
+      dbValidations = validations;
+    }
+    return validations;
+  }
+
+  private Map<String, String> readDefaultAssertions(String jsonFile) {
+    return readJsonValue(TestDataConstants.RESPONSE_RESOURCE_PATH + jsonFile, new TypeReference<Map<String, String>>() {
+    });
+  }
+
+  private JsonNode readTree(String fileUrl, boolean copy) {
+    if (suiteIndex.contains(fileUrl)) {
+      SuiteIndex.IndexedFile file = suiteIndex.get(fileUrl);
+      return copy ? file.renderCopy() : file.render();
+    }
     try {
-      return new String(Files.readAllBytes(Paths.get(jsonFile)), Charset.forName("UTF-8"));
+      return TestDataConstants.MAPPER.readTree(RegExParser.regexParser(fileUrl, readjsonFile(fileUrl)));
     } catch (IOException e) {
       throw InternalErrorException.builder().internalError().cause(e).detail("Exception occurred while reading file")
           .build();
     }
   }
 
-  private void verifyValidationAnnotation(Object responseValue, String annotation) {
+  private <T> T readJsonValue(String fileUrl, TypeReference<T> type) {
+    if (suiteIndex.contains(fileUrl)) {
+      return suiteIndex.readValue(fileUrl, type);
+    }
+    try {
+      return TestDataConstants.MAPPER.readValue(readjsonFile(fileUrl), type);
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e).detail("Exception occurred while reading file")
+          .build();
+    }
+  }
 
-    switch (annotation) {
-    case "@NotNull":
-      VerifyUtil.verifyNotNull(TestDataConstants.VERIFICATION_FAILED, responseValue);
-      break;
-    case "@uuid":
-      VerifyAnnotation.verifyUuid(responseValue.toString());
-      break;
-    default:
-      throw new RuntimeException("Annotation not valid");
+  private String readjsonFile(String jsonFile) {
+    try {
+      return new String(Files.readAllBytes(Paths.get(jsonFile)), Charset.forName("UTF-8"));
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e).detail("Exception occurred while reading file")
+          .build();
     }
   }
 
@@ -5,11 +5,15 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.datatype.joda.JodaModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
 
-import java.util.HashMap;
 import java.util.Map;
 
 public class TestDataConstants {
@@ -18,20 +22,63 @@ public class TestDataConstants {
   public static final String RESOURCE_FILE_PATH = "src/componentTest/resources/";
   public static final String TESTCASE_FILE_PATH = "src/componentTest/resources/testCases/";
   public static final String REQUEST_RESOURCE_PATH = "src/componentTest/resources/requestResource/";
+  public static final String RESPONSE_RESOURCE_PATH = "src/componentTest/resources/responseResource/";
   public static final String DB_VALIDATION_PATH =
       "src/componentTest/resources/testCases/dbValidations.json";
+  public static final String CALL_POLICY_PATH =
+      "src/componentTest/resources/testCases/callPolicies.json";
   public static final String METHOD_PATTERN = "\\{\\{" + "(?<method>.+?)" + "\\}\\}";
   public static final String VARIABLE_PATTERN = "\\{[$]" + "(?<var>.+?)" + "\\}";
   public static final String PATTERN = METHOD_PATTERN + "|" + VARIABLE_PATTERN;
   public static final String DB_PATTERN = "\\$." + "([^']+)";
 
-  public static final ThreadLocal<HashMap<String, String>> CONTEXT =
-      new ThreadLocal<HashMap<String, String>>();
+  public static final long INDEX_MAX_FILE_BYTES = Long.getLong("jsonTest.index.maxFileBytes", 16L * 1024 * 1024);
+
+  public static final String INCREMENTAL_MODE = System.getProperty("jsonTest.incremental", "OFF");
+  public static final boolean INCREMENTAL_FORCE = Boolean.getBoolean("jsonTest.incremental.force");
+  public static final String TEST_CACHE_PATH =
+      System.getProperty("jsonTest.incremental.cache", "build/jsonTest/test-cache.json");
+
+  public static final int SHARD_INDEX = Integer.getInteger("jsonTest.shard.index", 0);
+  public static final int SHARD_COUNT = Integer.getInteger("jsonTest.shard.count", 1);
+  public static final String SHARD_DURATIONS = System.getProperty("jsonTest.shard.durations");
+  public static final String SHARD_RESULTS = System.getProperty("jsonTest.shard.results");
+
+  public static final String RUNNER_MODE = System.getProperty("jsonTest.runner.mode", "FORK_JOIN");
+  public static final int RUNNER_PARALLELISM = Integer.getInteger("jsonTest.runner.parallelism",
+      Runtime.getRuntime().availableProcessors() * 4);
+  public static final int DATA_SOURCE_PARALLELISM =
+      Integer.getInteger("jsonTest.dataSource.parallelism", Math.max(1, RUNNER_PARALLELISM / 4));
+  public static final boolean LIMITER_ENABLED = Boolean.getBoolean("jsonTest.limiter.enabled");
+  public static final String LIMITER_ALGORITHM = System.getProperty("jsonTest.limiter.algorithm", "VEGAS");
+  public static final int LIMITER_INITIAL_LIMIT = Integer.getInteger("jsonTest.limiter.initialLimit", 20);
+  public static final int LIMITER_MIN_LIMIT = Integer.getInteger("jsonTest.limiter.minLimit", 1);
+  public static final int LIMITER_MAX_LIMIT = Integer.getInteger("jsonTest.limiter.maxLimit", 1000);
+  public static final int DB_QUERY_PARALLELISM = Integer.getInteger("jsonTest.db.parallelism", 4);
+  public static final int REPORT_QUEUE_CAPACITY = Integer.getInteger("jsonTest.report.queueCapacity", 65536);
+  public static final boolean RESPONSE_BINDING =
+      Boolean.parseBoolean(System.getProperty("jsonTest.response.bind", "true"));
+  public static final String HTTP_MODE = System.getProperty("jsonTest.http.mode", "LIVE");
+  public static final String RECORDINGS_PATH =
+      System.getProperty("jsonTest.http.recordings", "src/componentTest/resources/recordings/");
+  public static final String HTTP_VERSION = System.getProperty("jsonTest.http.version", "HTTP_2");
+  public static final int HTTP_POOL_SIZE = Integer.getInteger("jsonTest.http.poolSize", 0);
+  public static final int HTTP_KEEP_ALIVE_SECONDS = Integer.getInteger("jsonTest.http.keepAliveSeconds", 1200);
+  public static final int HTTP_CONNECT_TIMEOUT_MILLIS = Integer.getInteger("jsonTest.http.connectTimeoutMillis", 10000);
+  public static final int HTTP_REQUEST_TIMEOUT_MILLIS = Integer.getInteger("jsonTest.http.requestTimeoutMillis", 30000);
+
+  public static final ThreadLocal<VariableContext> CONTEXT = new ThreadLocal<VariableContext>();
 
   public static final ObjectMapper MAPPER = getMapper();
+  public static final ObjectReader RESPONSE_READER =
+      MAPPER.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+          .with(JsonNodeFactory.withExactBigDecimals(true));
   public static final TypeReference<Map<String, Object>> MAP_TYPE_REFERENCE =
       new TypeReference<Map<String, Object>>() {
       };
+  public static final Configuration JSON_NODE_CONFIGURATION = Configuration.builder()
+      .jsonProvider(new JacksonJsonNodeJsonProvider(MAPPER)).mappingProvider(new JacksonMappingProvider(MAPPER))
+      .build();
 
   private static ObjectMapper getMapper() {
     final ObjectMapper objectMapper = new ObjectMapper();
@@ -0,0 +1,85 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one test case run, with the results of its assertions.
+ */
+public class TestResult {
+
+  private final String testName;
+  private final String method;
+  private final String url;
+  private final long startMillis;
+  private final long durationNanos;
+  private final Throwable failure;
+  private final List<AssertionResult> assertions;
+  private final boolean skipped;
+
+  /**
+   * parameterized constructor.
+   */
+  public TestResult(String testName, String method, String url, long startMillis, long durationNanos,
+      Throwable failure, List<AssertionResult> assertions) {
+    this(testName, method, url, startMillis, durationNanos, failure, assertions, false);
+  }
+
+  private TestResult(String testName, String method, String url, long startMillis, long durationNanos,
+      Throwable failure, List<AssertionResult> assertions, boolean skipped) {
+    this.testName = testName;
+    this.method = method;
+    this.url = url;
+    this.startMillis = startMillis;
+    this.durationNanos = durationNanos;
+    this.failure = failure;
+    this.assertions = assertions == null ? Collections.emptyList() : assertions;
+    this.skipped = skipped;
+  }
+
+  /**
+   * function to create the result of a test that was not run.
+   *
+   * @param testName testName
+   * @param method method
+   * @param url url
+   */
+  public static TestResult skipped(String testName, String method, String url) {
+    return new TestResult(testName, method, url, System.currentTimeMillis(), 0, null, null, true);
+  }
+
+  public String getTestName() {
+    return testName;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public long getStartMillis() {
+    return startMillis;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  public List<AssertionResult> getAssertions() {
+    return assertions;
+  }
+
+  public boolean isPassed() {
+    return failure == null;
+  }
+
+  public boolean isSkipped() {
+    return skipped;
+  }
+
+}
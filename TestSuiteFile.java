@@ -0,0 +1,258 @@
+import com.paysafe.op.errorhandling.exceptions.InternalErrorException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Test case file read lazily. The file, a json array of test cases or one test case per line
+ * (jsonl), is memory mapped and scanned once with a streaming parser to index the byte range of
+ * every test case by name. A test case is templated and bound to {@link TestCaseDto} only when it
+ * is requested, so memory grows with the number of names, not with the size of the suite. The last
+ * CACHE_SIZE test cases used are kept; a test case evicted from them is templated again, with new
+ * values for helpers such as {{generateUuid}}, so callers template a test once per run and pass the
+ * {@link TestCaseDto} along. A test case with a dataSource is compiled once and rendered again for
+ * every row, see {@link #getRow}.
+ */
+public class TestSuiteFile {
+
+  private static final int CACHE_SIZE = 1024;
+
+  private final Path path;
+  private final ByteBuffer content;
+  private final VariableContext templateContext;
+  private final Map<String, Integer> ordinals;
+  private final long[] ranges;
+  private final Map<String, String> dataSources;
+  private final Map<String, CompiledTemplate> rowTemplates = new ConcurrentHashMap<>();
+  private final Map<String, List<String>> fieldNames = new ConcurrentHashMap<>();
+  private final Map<String, TestCaseDto> materialized =
+      Collections.synchronizedMap(new LinkedHashMap<String, TestCaseDto>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TestCaseDto> eldest) {
+          return size() > CACHE_SIZE;
+        }
+      });
+
+  private TestSuiteFile(Path path, ByteBuffer content, VariableContext templateContext, Map<String, Integer> ordinals,
+      long[] ranges, Map<String, String> dataSources) {
+    this.path = path;
+    this.content = content;
+    this.templateContext = templateContext;
+    this.ordinals = Collections.unmodifiableMap(ordinals);
+    this.ranges = ranges;
+    this.dataSources = Collections.unmodifiableMap(dataSources);
+  }
+
+  /**
+   * function to map and index a test case file.
+   *
+   * @param path path
+   * @param templateContext context the placeholders of the test cases are resolved in.
+   */
+  public static TestSuiteFile open(Path path, VariableContext templateContext) {
+    MappedByteBuffer content;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw InternalErrorException.builder().internalError().detail(path + " is too large to be mapped").build();
+      }
+      content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while reading " + path).build();
+    }
+    Map<String, Integer> ordinals = new HashMap<>();
+    Map<String, String> dataSources = new HashMap<>();
+    long[] ranges = new long[64];
+    int count = 0;
+    try (InputStream input = new ByteBufferBackedInputStream(content.duplicate());
+        JsonParser parser = TestDataConstants.MAPPER.getFactory().createParser(input)) {
+      JsonToken token = parser.nextToken();
+      boolean array = token == JsonToken.START_ARRAY;
+      if (array) {
+        token = parser.nextToken();
+      }
+      while (token == JsonToken.START_OBJECT) {
+        long start = parser.getTokenLocation().getByteOffset();
+        String[] fields = readIndexFields(parser);
+        String testName = fields[0];
+        if (fields[1] != null) {
+          dataSources.put(testName, fields[1]);
+        }
+        long end = parser.getCurrentLocation().getByteOffset();
+        if (count == ranges.length) {
+          ranges = Arrays.copyOf(ranges, count * 2);
+        }
+        ranges[count] = start << 32 | (end - start);
+        ordinals.put(testName, count++);
+        token = parser.nextToken();
+      }
+      if (token != null && !(array && token == JsonToken.END_ARRAY)) {
+        throw InternalErrorException.builder().internalError()
+            .detail(path + " is neither a json array of test cases nor a jsonl file").build();
+      }
+    } catch (IOException e) {
+      throw InternalErrorException.builder().internalError().cause(e)
+          .detail("Exception occurred while indexing " + path).build();
+    }
+    return new TestSuiteFile(path, content, templateContext, ordinals, Arrays.copyOf(ranges, count), dataSources);
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public Set<String> getTestNames() {
+    return ordinals.keySet();
+  }
+
+  public boolean contains(String testName) {
+    return ordinals.containsKey(testName);
+  }
+
+  /**
+   * function to materialize a test case, templated in the template context of the file.
+   *
+   * @param testName testName
+   * @return the test case, null when the file has no such test.
+   */
+  public TestCaseDto get(String testName) {
+    TestCaseDto testCase = materialized.get(testName);
+    if (testCase != null) {
+      return testCase;
+    }
+    if (!ordinals.containsKey(testName)) {
+      return null;
+    }
+    VariableContext context = templateContext;
+    if (dataSources.containsKey(testName)) {
+      context = new VariableContext(templateContext);
+      List<String> fields = fieldNames.get(testName);
+      if (fields == null) {
+        fields = DataSource.readFieldNames(getDataSourcePath(testName));
+        fieldNames.putIfAbsent(testName, fields);
+      }
+      for (String field : fields) {
+        context.put(field, "{$" + field + "}");
+      }
+    }
+    testCase = materialize(testName, context);
+    TestCaseDto cached = materialized.putIfAbsent(testName, testCase);
+    return cached != null ? cached : testCase;
+  }
+
+  /**
+   * function to materialize a row of a data driven test, without caching it. The fields of the row
+   * are escaped as json string content and resolved before the given context.
+   *
+   * @param testName testName
+   * @param row row
+   * @param context context
+   * @return the test case, null when the file has no such test.
+   */
+  public TestCaseDto getRow(String testName, DataSource.Row row, VariableContext context) {
+    if (!ordinals.containsKey(testName)) {
+      return null;
+    }
+    VariableContext rowContext = new VariableContext(context);
+    for (Map.Entry<String, String> field : row.getFields().entrySet()) {
+      String value = field.getValue();
+      rowContext.put(field.getKey(),
+          value == null ? null : new String(JsonStringEncoder.getInstance().quoteAsString(value)));
+    }
+    CompiledTemplate template = rowTemplates.get(testName);
+    if (template == null) {
+      template = CompiledTemplate.compile(new String(getRaw(testName), StandardCharsets.UTF_8));
+      if (rowTemplates.size() < CACHE_SIZE) {
+        rowTemplates.putIfAbsent(testName, template);
+      }
+    }
+    return materialize(template, rowContext);
+  }
+
+  /**
+   * function to get the rows file of a data driven test, relative to the test case directory.
+   *
+   * @param testName testName
+   * @return the path, null when the test is not data driven.
+   */
+  public Path getDataSourcePath(String testName) {
+    String dataSource = dataSources.get(testName);
+    return dataSource == null ? null : Paths.get(TestDataConstants.TESTCASE_FILE_PATH + dataSource);
+  }
+
+  /**
+   * function to get a test case as it is in the file, before templating.
+   *
+   * @param testName testName
+   * @return the bytes of the test case, null when the file has no such test.
+   */
+  public byte[] getRaw(String testName) {
+    Integer ordinal = ordinals.get(testName);
+    if (ordinal == null) {
+      return null;
+    }
+    byte[] bytes = new byte[(int) ranges[ordinal]];
+    ByteBuffer slice = content.duplicate();
+    slice.position((int) (ranges[ordinal] >>> 32));
+    slice.get(bytes);
+    return bytes;
+  }
+
+  private TestCaseDto materialize(String testName, VariableContext context) {
+    return materialize(CompiledTemplate.compile(new String(getRaw(testName), StandardCharsets.UTF_8)), context);
+  }
+
+  private TestCaseDto materialize(CompiledTemplate template, VariableContext context) {
+    TestCaseDto[] testCase = new TestCaseDto[1];
+    context.bind(() -> {
+      try {
+        testCase[0] = ObjectCodecs.reader(TestCaseDto.class).readValue(template.render());
+      } catch (IOException e) {
+        throw InternalErrorException.builder().internalError().cause(e)
+            .detail("Exception occurred while reading test case of " + path).build();
+      }
+    });
+    return testCase[0];
+  }
+
+  /**
+   * read a test case object up to its end, skipping everything but its top level testName and
+   * dataSource.
+   */
+  private static String[] readIndexFields(JsonParser parser) throws IOException {
+    String[] fields = new String[2];
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("testName".equals(field) && value == JsonToken.VALUE_STRING) {
+        fields[0] = parser.getText();
+      } else if ("dataSource".equals(field) && value == JsonToken.VALUE_STRING) {
+        fields[1] = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return fields;
+  }
+
+}
@@ -0,0 +1,174 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Path template such as /accounts/{id}/entries parsed once into literal segments and parameter
+ * names. Expansion percent-encodes path parameter values as path segments and query parameters as
+ * query components, and writes everything into one builder.
+ */
+public final class UriTemplate {
+
+  private static final int CACHE_SIZE = 4096;
+  private static final Map<String, UriTemplate> CACHE = new ConcurrentHashMap<>();
+  private static final Pattern VERSION = Pattern.compile("v\\d+(\\.\\d+)*");
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+  private static final String PATH_SAFE = "-._~!$&'()*+,;=:@";
+  private static final String QUERY_SAFE = "-._~!$'()*,;:@/?";
+
+  private final String template;
+  private final String[] literals;
+  private final String[] names;
+
+  private UriTemplate(String template, List<String> literals, List<String> names) {
+    this.template = template;
+    this.literals = literals.toArray(new String[0]);
+    this.names = names.toArray(new String[0]);
+  }
+
+  /**
+   * function to parse a template, reusing the parsed form of templates seen before.
+   *
+   * @param template template
+   */
+  public static UriTemplate of(String template) {
+    UriTemplate compiled = CACHE.get(template);
+    if (compiled == null) {
+      compiled = compile(template);
+      if (CACHE.size() < CACHE_SIZE) {
+        CACHE.putIfAbsent(template, compiled);
+      }
+    }
+    return compiled;
+  }
+
+  private static UriTemplate compile(String template) {
+    List<String> literals = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    int literalStart = 0;
+    int open = template.indexOf('{');
+    while (open >= 0) {
+      int close = template.indexOf('}', open + 1);
+      if (close < 0) {
+        break;
+      }
+      literals.add(template.substring(literalStart, open));
+      names.add(template.substring(open + 1, close));
+      literalStart = close + 1;
+      open = template.indexOf('{', literalStart);
+    }
+    literals.add(template.substring(literalStart));
+    return new UriTemplate(template, literals, names);
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  /**
+   * function to get the template of an expanded path, for keys that must not grow with every id.
+   * The query is dropped and path segments holding a digit, such as ids and uuids, become {}; the
+   * scheme and host, and version segments such as v1, are kept.
+   *
+   * @param path path, may be null.
+   */
+  public static String pathTemplate(String path) {
+    if (path == null) {
+      return null;
+    }
+    int query = path.indexOf('?');
+    String pathOnly = query < 0 ? path : path.substring(0, query);
+    StringBuilder template = new StringBuilder(pathOnly.length());
+    int start = 0;
+    int scheme = pathOnly.indexOf("://");
+    if (scheme >= 0) {
+      int authorityEnd = pathOnly.indexOf('/', scheme + 3);
+      if (authorityEnd < 0) {
+        return pathOnly;
+      }
+      template.append(pathOnly, 0, authorityEnd + 1);
+      start = authorityEnd + 1;
+    }
+    while (start <= pathOnly.length()) {
+      int end = pathOnly.indexOf('/', start);
+      if (end < 0) {
+        end = pathOnly.length();
+      }
+      String segment = pathOnly.substring(start, end);
+      boolean variable = segment.indexOf('{') < 0 && !VERSION.matcher(segment).matches()
+          && segment.chars().anyMatch(Character::isDigit);
+      template.append(variable ? "{}" : segment);
+      if (end < pathOnly.length()) {
+        template.append('/');
+      }
+      start = end + 1;
+    }
+    return template.toString();
+  }
+
+  /**
+   * function to expand the template. Parameters without a value are left as {name}, list values of
+   * a query parameter repeat the parameter.
+   *
+   * @param prefix prefix written as it is, such as the base url.
+   * @param pathParams path params, may be null.
+   * @param queryParams query params, may be null.
+   */
+  public String expand(String prefix, Map<String, String> pathParams, Map<String, Object> queryParams) {
+    StringBuilder uri = new StringBuilder(prefix.length() + template.length() + 64).append(prefix);
+    for (int i = 0; i < names.length; i++) {
+      uri.append(literals[i]);
+      String value = pathParams == null ? null : pathParams.get(names[i]);
+      if (value == null) {
+        uri.append('{').append(names[i]).append('}');
+      } else {
+        encode(uri, value, PATH_SAFE);
+      }
+    }
+    uri.append(literals[names.length]);
+    if (queryParams != null && !queryParams.isEmpty()) {
+      char separator = template.indexOf('?') < 0 ? '?' : '&';
+      for (Map.Entry<String, Object> queryParam : queryParams.entrySet()) {
+        if (queryParam.getValue() instanceof Iterable) {
+          for (Object value : (Iterable<?>) queryParam.getValue()) {
+            appendQueryParam(uri.append(separator), queryParam.getKey(), value);
+            separator = '&';
+          }
+        } else {
+          appendQueryParam(uri.append(separator), queryParam.getKey(), queryParam.getValue());
+          separator = '&';
+        }
+      }
+    }
+    return uri.toString();
+  }
+
+  private static void appendQueryParam(StringBuilder uri, String name, Object value) {
+    encode(uri, name, QUERY_SAFE);
+    encode(uri.append('='), String.valueOf(value), QUERY_SAFE);
+  }
+
+  private static void encode(StringBuilder uri, String value, String safe) {
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80 && (Character.isLetterOrDigit(c) || safe.indexOf(c) >= 0)) {
+        uri.append(c);
+        continue;
+      }
+      int end = i + 1;
+      while (end < length && !(value.charAt(end) < 0x80 && (Character.isLetterOrDigit(value.charAt(end))
+          || safe.indexOf(value.charAt(end)) >= 0))) {
+        end++;
+      }
+      for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+        uri.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+      }
+      i = end - 1;
+    }
+  }
+
+}
@@ -0,0 +1,96 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hierarchical variable scope used for templating. Lookups fall back to the parent scope, writes
+ * always stay in the current scope.
+ */
+public class VariableContext {
+
+  private static final String NULL_VALUE = new String("\u0000null");
+
+  private final VariableContext parent;
+  private final Map<String, String> variables = new ConcurrentHashMap<>();
+
+  /**
+   * create a scope on top of the given parent.
+   *
+   * @param parent parent scope, may be null for a root scope.
+   */
+  public VariableContext(VariableContext parent) {
+    this.parent = parent;
+  }
+
+  /**
+   * function to get value from this scope or its parents.
+   *
+   * @param var var
+   */
+  public String get(String var) {
+    for (VariableContext context = this; context != null; context = context.parent) {
+      String value = context.variables.get(var);
+      if (value != null) {
+        return value == NULL_VALUE ? null : value;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * function to assign value to this scope.
+   *
+   * @param var var
+   * @param value value
+   */
+  public void put(String var, String value) {
+    variables.put(var, value == null ? NULL_VALUE : value);
+  }
+
+  /**
+   * function to copy all values of the given map into this scope.
+   *
+   * @param values values
+   */
+  public void putAll(Map<String, String> values) {
+    for (Map.Entry<String, String> entry : values.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * function to get the values assigned in this scope only.
+   */
+  public Map<String, String> snapshot() {
+    Map<String, String> snapshot = new HashMap<>();
+    for (Map.Entry<String, String> entry : variables.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue() == NULL_VALUE ? null : entry.getValue());
+    }
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  public VariableContext getParent() {
+    return parent;
+  }
+
+  /**
+   * function to run a task with this scope bound to the current thread.
+   *
+   * @param task task
+   */
+  public void bind(Runnable task) {
+    VariableContext previous = TestDataConstants.CONTEXT.get();
+    TestDataConstants.CONTEXT.set(this);
+    try {
+      task.run();
+    } finally {
+      if (previous == null) {
+        TestDataConstants.CONTEXT.remove();
+      } else {
+        TestDataConstants.CONTEXT.set(previous);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,78 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of evaluating JsonPath assertions on deep and wide responses, with the response parsed
+ * once, read again from a parsed engine, and read in a single streaming pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AssertionBenchmark {
+
+  @Param({ "deep", "wide" })
+  private String shape;
+
+  // deep responses stay below the default nesting limit of the Jackson parser
+  @Param({ "10", "100", "500" })
+  private int size;
+
+  @Param({ "1", "10" })
+  private int assertions;
+
+  private ApiResponse response;
+  private AssertionEngine parsed;
+  private List<String> paths;
+
+  /**
+   * build the response and the paths of the assertions.
+   */
+  @Setup
+  public void setUp() {
+    String json = "deep".equals(shape) ? BenchmarkData.deepObject(size) : BenchmarkData.flatObject(size, 0);
+    response = new ApiResponse(200, json.getBytes(StandardCharsets.UTF_8));
+    paths = new ArrayList<>();
+    for (int i = 0; i < assertions; i++) {
+      paths.add("deep".equals(shape) ? BenchmarkData.deepPath(size - i * size / assertions)
+          : "$.field" + (i * size / assertions));
+    }
+    parsed = AssertionEngine.of(response);
+  }
+
+  @Benchmark
+  public void parseAndRead(Blackhole blackhole) {
+    AssertionEngine engine = AssertionEngine.of(response);
+    for (String path : paths) {
+      blackhole.consume(engine.read(path));
+    }
+  }
+
+  @Benchmark
+  public void read(Blackhole blackhole) {
+    for (String path : paths) {
+      blackhole.consume(parsed.read(path));
+    }
+  }
+
+  @Benchmark
+  public void streamingRead(Blackhole blackhole) {
+    AssertionEngine engine = StreamingAssertionEngine.parse(new ByteArrayInputStream(response.getBody()), paths);
+    for (String path : paths) {
+      blackhole.consume(engine.read(path));
+    }
+  }
+
+}
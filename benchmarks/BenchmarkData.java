@@ -0,0 +1,65 @@
+/**
+ * Json payloads of the benchmarks.
+ */
+final class BenchmarkData {
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * function to build a flat object of string fields field0..fieldN, the given share of them
+   * holding a {{generateUuid}} or {$accountId} placeholder.
+   *
+   * @param fields fields
+   * @param placeholderPercent placeholderPercent
+   */
+  static String flatObject(int fields, int placeholderPercent) {
+    StringBuilder json = new StringBuilder(fields * 32).append('{');
+    int every = placeholderPercent == 0 ? 0 : Math.max(1, 100 / placeholderPercent);
+    for (int i = 0; i < fields; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("\"field").append(i).append("\":\"");
+      if (every > 0 && i % every == 0) {
+        json.append(i % (every * 2) == 0 ? "{{generateUuid}}" : "{$accountId}");
+      } else {
+        json.append("value").append(i);
+      }
+      json.append('"');
+    }
+    return json.append('}').toString();
+  }
+
+  /**
+   * function to build an object nested depth levels deep, each level holding a value and the next
+   * level.
+   *
+   * @param depth depth
+   */
+  static String deepObject(int depth) {
+    StringBuilder json = new StringBuilder(depth * 40);
+    for (int i = 0; i < depth; i++) {
+      json.append("{\"value\":\"level").append(i).append("\",\"child\":");
+    }
+    json.append("null");
+    for (int i = 0; i < depth; i++) {
+      json.append('}');
+    }
+    return json.toString();
+  }
+
+  /**
+   * function to get the path of the value of a level of {@link #deepObject(int)}.
+   *
+   * @param level level, from 1
+   */
+  static String deepPath(int level) {
+    StringBuilder path = new StringBuilder("$");
+    for (int i = 1; i < level; i++) {
+      path.append(".child");
+    }
+    return path.append(".value").toString();
+  }
+
+}
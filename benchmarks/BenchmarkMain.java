@@ -0,0 +1,33 @@
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the framework benchmarks with the gc profiler, so every result carries
+ * gc.alloc.rate.norm, the bytes allocated per operation. The sources are compiled with the
+ * framework classes and jmh-core, with jmh-generator-annprocess as annotation processor.
+ * Arguments, when given, are benchmark name patterns.
+ */
+public class BenchmarkMain {
+
+  /**
+   * function to run the benchmarks.
+   *
+   * @param args benchmark name patterns, every benchmark when empty.
+   */
+  public static void main(String[] args) throws RunnerException {
+    OptionsBuilder options = new OptionsBuilder();
+    if (args.length == 0) {
+      options.include(".*Benchmark");
+    }
+    for (String pattern : args) {
+      options.include(pattern);
+    }
+    Options run = options.addProfiler(GCProfiler.class).forks(1).warmupIterations(5).measurementIterations(5)
+        .build();
+    new Runner(run).run();
+  }
+
+}
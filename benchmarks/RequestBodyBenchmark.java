@@ -0,0 +1,57 @@
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a request body through the executor's own steps: render the indexed request
+ * resource, apply the requestModificationBody entries with TestCaseExecutor.modifyRequestTree and
+ * write the tree with TestCaseExecutor.writeRequestBody.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestBodyBenchmark {
+
+  @Param({ "0", "5", "50" })
+  private int modifications;
+
+  @Param({ "50", "1000" })
+  private int fields;
+
+  private SuiteIndex.IndexedFile requestResource;
+  private Map<String, String> modificationBody;
+
+  /**
+   * index the request resource and pick the fields to modify.
+   */
+  @Setup
+  public void setUp() {
+    TestDataConstants.CONTEXT.set(new VariableContext(null));
+    byte[] json = BenchmarkData.flatObject(fields, 0).getBytes(StandardCharsets.UTF_8);
+    requestResource = new SuiteIndex.IndexedFile("requestResource.json", json);
+    modificationBody = new LinkedHashMap<>();
+    for (int i = 0; i < modifications; i++) {
+      modificationBody.put("$.field" + (i % fields), "modified" + i);
+    }
+  }
+
+  @Benchmark
+  public byte[] requestBody() throws IOException {
+    JsonNode tree = modificationBody.isEmpty() ? requestResource.render() : requestResource.renderCopy();
+    return TestCaseExecutor.writeRequestBody(TestCaseExecutor.modifyRequestTree(tree, modificationBody), null);
+  }
+
+}
@@ -0,0 +1,49 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving the {{method}} and {$var} placeholders of a test data file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TemplateBenchmark {
+
+  @Param({ "10", "1000" })
+  private int fields;
+
+  @Param({ "0", "10" })
+  private int placeholderPercent;
+
+  private String template;
+
+  /**
+   * build a flat json template where the given share of the values are placeholders.
+   */
+  @Setup
+  public void setUp() {
+    VariableContext context = new VariableContext(null);
+    context.put("accountId", "0f8fad5b-d9cb-469f-a165-70867728950e");
+    TestDataConstants.CONTEXT.set(context);
+    template = BenchmarkData.flatObject(fields, placeholderPercent);
+  }
+
+  @Benchmark
+  public String regexParser() {
+    return RegExParser.regexParser("benchmark.json", template);
+  }
+
+  @Benchmark
+  public CompiledTemplate compile() {
+    return CompiledTemplate.compile(template);
+  }
+
+}
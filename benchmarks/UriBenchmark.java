@@ -0,0 +1,59 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the url of a call in ApiResourceRestClient, path parameters expanded and
+ * query parameters encoded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UriBenchmark {
+
+  private static final String BASE_URL = "http://localhost:8080";
+  private static final String PATH = "/ledger/v1/accounts/{accountId}/entries/{entryId}";
+
+  @Param({ "0", "5", "20" })
+  private int queryParams;
+
+  private Map<String, String> pathParamValues;
+  private Map<String, Object> queryParamValues;
+
+  /**
+   * build the parameters, a few of them needing encoding.
+   */
+  @Setup
+  public void setUp() {
+    pathParamValues = new HashMap<>();
+    pathParamValues.put("accountId", "0f8fad5b-d9cb-469f-a165-70867728950e");
+    pathParamValues.put("entryId", "entry 42");
+    queryParamValues = new LinkedHashMap<>();
+    for (int i = 0; i < queryParams; i++) {
+      queryParamValues.put("param" + i, i % 5 == 4 ? Arrays.asList("a&b", "c d") : "value" + i);
+    }
+  }
+
+  @Benchmark
+  public String expand() {
+    return UriTemplate.of(PATH).expand(BASE_URL, pathParamValues, queryParamValues);
+  }
+
+  @Benchmark
+  public String requestSpec() {
+    return RequestSpec.builder("GET", PATH).pathParams(pathParamValues).queryParams(queryParamValues)
+        .auth("Bearer token").build().toUri(BASE_URL);
+  }
+
+}